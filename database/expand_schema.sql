@@ -138,11 +138,15 @@ CREATE TABLE IF NOT EXISTS trading_sessions (
 CREATE TABLE IF NOT EXISTS price_history (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     commodity_id BIGINT NOT NULL,
+    resolution VARCHAR(3) NOT NULL,
+    open_price DECIMAL(15,2) NOT NULL,
+    high_price DECIMAL(15,2) NOT NULL,
+    low_price DECIMAL(15,2) NOT NULL,
     price DECIMAL(15,2) NOT NULL,
     volume DECIMAL(20,4),
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (commodity_id) REFERENCES commodities(id) ON DELETE CASCADE,
-    INDEX idx_commodity_time (commodity_id, timestamp)
+    UNIQUE KEY unique_commodity_resolution_time (commodity_id, resolution, timestamp)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- User Activity Log table (for admin and analytics)
@@ -15,8 +15,9 @@ CREATE TABLE IF NOT EXISTS users (
     email VARCHAR(100) UNIQUE NOT NULL,
     password VARCHAR(255) NOT NULL,
     full_name VARCHAR(100),
-    balance DECIMAL(15, 2) DEFAULT 100000.00,
+    balance DECIMAL(21, 6) DEFAULT 100000.00,
     is_admin BOOLEAN DEFAULT FALSE,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_username (username),
@@ -60,7 +61,7 @@ CREATE TABLE IF NOT EXISTS orders (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (commodity_id) REFERENCES commodities(id) ON DELETE CASCADE,
-    INDEX idx_user_id (user_id),
+    INDEX idx_orders_user_created (user_id, created_at, id),
     INDEX idx_commodity_id (commodity_id),
     INDEX idx_status (status),
     INDEX idx_created_at (created_at)
@@ -76,6 +77,7 @@ CREATE TABLE IF NOT EXISTS portfolio (
     quantity DECIMAL(15, 4) NOT NULL DEFAULT 0,
     average_price DECIMAL(15, 2) NOT NULL,
     total_invested DECIMAL(20, 2) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     UNIQUE KEY unique_user_commodity (user_id, commodity_id),
@@ -124,26 +126,51 @@ CREATE TABLE IF NOT EXISTS transactions (
     id INT AUTO_INCREMENT PRIMARY KEY,
     user_id INT NOT NULL,
     transaction_type ENUM('deposit', 'withdrawal', 'trade') NOT NULL,
-    amount DECIMAL(15, 2) NOT NULL,
+    amount DECIMAL(21, 6) NOT NULL,
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    INDEX idx_user_id (user_id),
+    INDEX idx_transactions_user_created (user_id, created_at, id),
     INDEX idx_transaction_type (transaction_type),
     INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Cash is kept to the micro (0.000001), the scale fills are settled at. On databases created
+-- with two decimals, widen the columns before starting the backend:
+-- ALTER TABLE users MODIFY balance DECIMAL(21, 6) DEFAULT 100000.00;
+-- ALTER TABLE transactions MODIFY amount DECIMAL(21, 6) NOT NULL;
+
+-- ============================================
+-- ID SEQUENCES TABLE (pooled id blocks for orders and transactions)
+-- ============================================
+CREATE TABLE IF NOT EXISTS id_sequences (
+    sequence_name VARCHAR(255) PRIMARY KEY,
+    next_val BIGINT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================
+-- JOURNAL CHECKPOINTS TABLE (write-behind progress)
+-- ============================================
+CREATE TABLE IF NOT EXISTS journal_checkpoints (
+    name VARCHAR(50) PRIMARY KEY,
+    sequence BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ============================================
 -- PRICE HISTORY TABLE (for charts)
 -- ============================================
 CREATE TABLE IF NOT EXISTS price_history (
     id INT AUTO_INCREMENT PRIMARY KEY,
     commodity_id INT NOT NULL,
+    resolution VARCHAR(3) NOT NULL,
+    open_price DECIMAL(15, 2) NOT NULL,
+    high_price DECIMAL(15, 2) NOT NULL,
+    low_price DECIMAL(15, 2) NOT NULL,
     price DECIMAL(15, 2) NOT NULL,
+    volume DECIMAL(20, 4),
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (commodity_id) REFERENCES commodities(id) ON DELETE CASCADE,
-    INDEX idx_commodity_id (commodity_id),
-    INDEX idx_timestamp (timestamp)
+    UNIQUE KEY unique_commodity_resolution_time (commodity_id, resolution, timestamp)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ============================================
@@ -233,7 +260,7 @@ CREATE PROCEDURE place_order(
 )
 BEGIN
     DECLARE v_total_amount DECIMAL(20,2);
-    DECLARE v_user_balance DECIMAL(15,2);
+    DECLARE v_user_balance DECIMAL(21,6);
 
     SET v_total_amount = p_quantity * p_price;
 
@@ -332,7 +359,7 @@ CREATE INDEX idx_price_history_commodity_time ON price_history(commodity_id, tim
 -- SELECT * FROM orders_view WHERE user_id = 2 ORDER BY created_at DESC LIMIT 10;
 
 -- Get commodity price history
--- SELECT * FROM price_history WHERE commodity_id = 1 ORDER BY timestamp DESC LIMIT 30;
+-- SELECT * FROM price_history WHERE commodity_id = 1 AND resolution = '1d' ORDER BY timestamp DESC LIMIT 30;
 
 -- Place a sample order (using stored procedure)
 -- CALL place_order(2, 1, 'buy', 10.5, 1985.50);
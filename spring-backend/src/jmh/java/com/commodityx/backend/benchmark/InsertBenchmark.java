@@ -0,0 +1,164 @@
+package com.commodityx.backend.benchmark;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Inserts per second of transaction rows persisted through Hibernate, {@code ROWS} to a
+ * transaction, with each id strategy: IDENTITY, which executes every insert as it is persisted
+ * to read the key back, and the pooled table generator {@code Transaction} and {@code Order}
+ * use, which lets the inserts go out in JDBC batches. Both run with the batch settings from
+ * application.properties. Runs on in-memory H2 by default; on MySQL every round trip saved
+ * costs far more, so pass e.g. {@code -p url=jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true
+ * -p user=root -p password=root} to measure there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param("jdbc:h2:mem:insert-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+    private String url;
+
+    @Param("sa")
+    private String user;
+
+    @Param("")
+    private String password;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledRow.class)
+                .setProperty(AvailableSettings.URL, url)
+                .setProperty(AvailableSettings.USER, user)
+                .setProperty(AvailableSettings.PASS, password)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, Integer.toString(BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .buildSessionFactory();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearRows() {
+        sessionFactory.inTransaction(session -> {
+            session.createNativeMutationQuery("DELETE FROM identity_rows").executeUpdate();
+            session.createNativeMutationQuery("DELETE FROM pooled_rows").executeUpdate();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void identity() {
+        insert(IdentityRow::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledBatched() {
+        insert(PooledRow::new);
+    }
+
+    private void insert(Supplier<Row> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                Row row = rows.get();
+                row.userId = i % 100 + 1;
+                row.type = i % 2 == 0 ? "BUY" : "SELL";
+                row.amount = BigDecimal.valueOf(250_000L + i, 2);
+                row.description = "Bought 2.5 Gold";
+                row.createdAt = now;
+                session.persist(row);
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    @MappedSuperclass
+    abstract static class Row {
+
+        @Column(name = "user_id", nullable = false)
+        long userId;
+
+        @Column(nullable = false, length = 20)
+        String type;
+
+        @Column(nullable = false, precision = 21, scale = 6)
+        BigDecimal amount;
+
+        @Column(length = 255)
+        String description;
+
+        @Column(name = "created_at")
+        LocalDateTime createdAt;
+    }
+
+    @Entity
+    @Table(name = "identity_rows")
+    static class IdentityRow extends Row {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "pooled_rows")
+    static class PooledRow extends Row {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "pooled_rows_id")
+        @TableGenerator(name = "pooled_rows_id", table = "id_sequences", pkColumnName = "sequence_name",
+                valueColumnName = "next_val", pkColumnValue = "pooled_rows", allocationSize = 1000)
+        Long id;
+    }
+}
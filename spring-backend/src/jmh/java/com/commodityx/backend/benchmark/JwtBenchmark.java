@@ -0,0 +1,91 @@
+package com.commodityx.backend.benchmark;
+
+import com.commodityx.backend.security.JwtUtils;
+import com.commodityx.backend.security.UserPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost. {@code parseTwiceWithNewKey} is what the filter used to do:
+ * build the key and a parser, then verify the token once to validate it and again to read the
+ * subject. {@code verifyUncached} is one verification with the prebuilt parser, as on a cache
+ * miss, and {@code verifyCached} a repeat request answered from the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "your-256-bit-secret-key-change-this-in-production-make-it-very-long-and-secure";
+
+    private JwtUtils cached;
+    private JwtUtils uncached;
+    private UsernamePasswordAuthenticationToken authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = jwtUtils(100_000);
+        uncached = jwtUtils(0);
+        UserPrincipal principal = new UserPrincipal(42L, "alice", "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = cached.generateJwtToken(authentication);
+        cached.verify(token);
+    }
+
+    private static JwtUtils jwtUtils(int verifiedCacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    @Benchmark
+    public String sign() {
+        return cached.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String parseTwiceWithNewKey() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verifyCached() {
+        return cached.verify(token);
+    }
+}
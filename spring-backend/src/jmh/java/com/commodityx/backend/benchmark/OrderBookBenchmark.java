@@ -0,0 +1,85 @@
+package com.commodityx.backend.benchmark;
+
+import com.commodityx.backend.engine.MatchResult;
+import com.commodityx.backend.engine.OrderBook;
+import com.commodityx.backend.model.OrderType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching on a book with {@code depth} price levels of ten orders on each side. Every operation
+ * leaves the book as it found it, so the depth stays fixed for the whole run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    private static final long MID_TICKS = 200_000;
+    private static final long LOTS = 10_000;
+    private static final int ORDERS_PER_LEVEL = 10;
+
+    @Param({"100", "1000"})
+    private int depth;
+
+    private OrderBook book;
+    private long nextOrderId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        book = new OrderBook(1);
+        nextOrderId = 1;
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < ORDERS_PER_LEVEL; i++) {
+                book.match(nextOrderId++, i, OrderType.BUY, MID_TICKS - level, LOTS);
+                book.match(nextOrderId++, i, OrderType.SELL, MID_TICKS + level, LOTS);
+            }
+        }
+    }
+
+    /**
+     * A sell rests inside the spread and a buy takes it: one insert, one fill and one removal.
+     */
+    @Benchmark
+    public MatchResult restAndFill() {
+        book.match(nextOrderId++, 1, OrderType.SELL, MID_TICKS, LOTS);
+        return book.match(nextOrderId++, 2, OrderType.BUY, MID_TICKS, LOTS);
+    }
+
+    /**
+     * A buy joins the back of a level in the middle of the bids and is cancelled.
+     */
+    @Benchmark
+    public long restAndCancel() {
+        long orderId = nextOrderId++;
+        book.match(orderId, 1, OrderType.BUY, MID_TICKS - depth / 2, LOTS);
+        return book.cancel(orderId);
+    }
+
+    /**
+     * A buy sweeps the best ask level and the ten orders are put back.
+     */
+    @Benchmark
+    public MatchResult sweepLevel() {
+        MatchResult result = book.match(nextOrderId++, 2, OrderType.BUY, MID_TICKS + 1, ORDERS_PER_LEVEL * LOTS);
+        for (int i = 0; i < ORDERS_PER_LEVEL; i++) {
+            book.match(nextOrderId++, i, OrderType.SELL, MID_TICKS + 1, LOTS);
+        }
+        return result;
+    }
+}
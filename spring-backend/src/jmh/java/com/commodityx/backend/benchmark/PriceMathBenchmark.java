@@ -0,0 +1,65 @@
+package com.commodityx.backend.benchmark;
+
+import com.commodityx.backend.engine.PriceScale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of placing and filling an order: the weighted average price of a holding after
+ * a buy, as {@code TradingService} first did it in {@link BigDecimal} and as {@link PriceScale}
+ * does it now, and the conversions an order goes through on its way to the book and back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceMathBenchmark {
+
+    private BigDecimal heldQuantity = new BigDecimal("12.5000");
+    private BigDecimal heldAverage = new BigDecimal("1985.37");
+    private BigDecimal quantity = new BigDecimal("3.2500");
+    private BigDecimal price = new BigDecimal("1991.05");
+
+    private long heldLots = PriceScale.toLots(heldQuantity);
+    private long heldAverageTicks = PriceScale.toTicks(heldAverage);
+    private long lots = PriceScale.toLots(quantity);
+    private long priceTicks = PriceScale.toTicks(price);
+
+    @Benchmark
+    public BigDecimal averagePriceBigDecimal() {
+        BigDecimal totalCost = price.multiply(quantity);
+        BigDecimal totalValue = heldQuantity.multiply(heldAverage).add(totalCost);
+        return totalValue.divide(heldQuantity.add(quantity), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long averagePriceFixedPoint() {
+        return PriceScale.averagePriceTicks(heldLots, heldAverageTicks, lots, priceTicks);
+    }
+
+    /**
+     * Request to engine primitives, the reservation notional, and back to the response scales.
+     */
+    @Benchmark
+    public void orderConversions(Blackhole blackhole) {
+        long ticks = PriceScale.toTicks(price);
+        long orderLots = PriceScale.toLots(quantity);
+        blackhole.consume(PriceScale.notionalMicros(ticks, orderLots));
+        blackhole.consume(PriceScale.fromTicks(ticks));
+        blackhole.consume(PriceScale.fromLots(orderLots));
+    }
+}
@@ -0,0 +1,85 @@
+package com.commodityx.backend.benchmark;
+
+import com.commodityx.backend.dto.OrderView;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.model.OrderStatus;
+import com.commodityx.backend.model.OrderType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies as the controllers write them: the commodity list and a page of orders,
+ * serialized to bytes with a mapper configured the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int COMMODITIES = 20;
+    private static final int ORDER_PAGE_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private List<Commodity> commodities;
+    private List<OrderView> orders;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+
+        commodities = new ArrayList<>(COMMODITIES);
+        for (int i = 1; i <= COMMODITIES; i++) {
+            Commodity commodity = new Commodity();
+            commodity.setId((long) i);
+            commodity.setSymbol("SYM" + i + "=F");
+            commodity.setName("Commodity " + i);
+            commodity.setCurrentPrice(BigDecimal.valueOf(100_000 + i * 731L, 2));
+            commodity.setPriceChange24h(BigDecimal.valueOf(-150 + i * 17L, 2));
+            commodity.setHigh24h(BigDecimal.valueOf(102_000 + i * 731L, 2));
+            commodity.setLow24h(BigDecimal.valueOf(98_000 + i * 731L, 2));
+            commodity.setVolume24h(BigDecimal.valueOf(12_345_678L * i, 4));
+            commodity.setUpdatedAt(now);
+            commodities.add(commodity);
+        }
+
+        orders = new ArrayList<>(ORDER_PAGE_SIZE);
+        for (int i = 1; i <= ORDER_PAGE_SIZE; i++) {
+            Commodity commodity = commodities.get(i % COMMODITIES);
+            orders.add(new OrderView((long) i, commodity.getId(), commodity.getSymbol(), commodity.getName(),
+                    i % 2 == 0 ? OrderType.BUY : OrderType.SELL, BigDecimal.valueOf(25_000L + i, 4),
+                    commodity.getCurrentPrice(), BigDecimal.valueOf(10_000L, 4),
+                    i % 3 == 0 ? OrderStatus.COMPLETED : OrderStatus.PENDING, now.minusMinutes(i)));
+        }
+    }
+
+    @Benchmark
+    public byte[] commodityList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(commodities);
+    }
+
+    @Benchmark
+    public byte[] orderPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+}
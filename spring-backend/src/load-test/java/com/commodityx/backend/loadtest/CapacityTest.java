@@ -0,0 +1,106 @@
+package com.commodityx.backend.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares how many concurrent traders the embedded backend sustains with requests handled on
+ * Tomcat's platform threads and on virtual threads, on the same machine with the same mix. Each
+ * mode gets a fresh backend and steps through the given populations in order; a step passes
+ * when no request failed and every endpoint's p99 is within the SLO, and the mode's capacity is
+ * the last population that passed before the first that did not.
+ *
+ * <pre>
+ * mvn -Pload-test verify -Dload-test.args="--steps=250,500,1000,2000 --slo-p99-ms=500"
+ * </pre>
+ */
+final class CapacityTest {
+
+    static final String PLATFORM = "platform";
+    static final String VIRTUAL = "virtual";
+    private static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+    private CapacityTest() {
+    }
+
+    static int run(LoadTestOptions options) throws Exception {
+        if (options.target != null) {
+            throw new IllegalArgumentException("--steps switches the embedded backend's thread mode and cannot be used with --target");
+        }
+        if (options.modes.contains(VIRTUAL) && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, this is " + Runtime.version());
+        }
+
+        List<Map<String, Object>> modes = new ArrayList<>();
+        for (String mode : options.modes) {
+            LoadTestOptions backendOptions = options.withUsers(Arrays.stream(options.steps).max().getAsInt());
+            backendOptions.backendProperties.put(VIRTUAL_THREADS_PROPERTY, Boolean.toString(mode.equals(VIRTUAL)));
+
+            List<Map<String, Object>> steps = new ArrayList<>();
+            int capacity = 0;
+            try (EmbeddedBackend backend = EmbeddedBackend.start(backendOptions)) {
+                for (int users : options.steps) {
+                    System.out.printf("%n=== %s threads, %d traders ===%n", mode, users);
+                    Map<String, Object> step = LoadTest.run(options.withUsers(users), backend.baseUrl(), false);
+                    double worstP99 = worstP99(step);
+                    boolean passed = (long) step.get("failed") == 0 && worstP99 <= options.sloP99Millis;
+                    step.put("worstP99Ms", worstP99);
+                    step.put("passed", passed);
+                    steps.add(step);
+                    if (!passed) {
+                        break;
+                    }
+                    capacity = users;
+                }
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", mode);
+            result.put("capacity", capacity);
+            result.put("steps", steps);
+            modes.add(result);
+        }
+
+        StringBuilder summary = new StringBuilder(String.format("%nCapacity at p99 <= %.0f ms with no failures%n%-9s %9s %9s %13s %9s %7s",
+                options.sloP99Millis, "Mode", "Traders", "Req/s", "Worst p99 ms", "Failed", "Passed"));
+        for (Map<String, Object> mode : modes) {
+            for (Object entry : (List<?>) mode.get("steps")) {
+                Map<?, ?> step = (Map<?, ?>) entry;
+                summary.append(String.format("%n%-9s %9d %9.1f %13.2f %9d %7s", mode.get("mode"), step.get("users"),
+                        throughput(step), step.get("worstP99Ms"), step.get("failed"), step.get("passed")));
+            }
+        }
+        for (Map<String, Object> mode : modes) {
+            summary.append(String.format("%n%s threads: %d traders", mode.get("mode"), mode.get("capacity")));
+        }
+        System.out.println(summary);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", "embedded");
+        report.put("sloP99Ms", options.sloP99Millis);
+        report.put("cpus", Runtime.getRuntime().availableProcessors());
+        report.put("java", Runtime.version().toString());
+        report.put("modes", modes);
+        LoadTest.write(options.out, report);
+        return 0;
+    }
+
+    private static double worstP99(Map<String, Object> step) {
+        double worst = 0;
+        for (Object endpoint : (List<?>) step.get("endpoints")) {
+            worst = Math.max(worst, (double) ((Map<?, ?>) endpoint).get("p99Ms"));
+        }
+        return worst;
+    }
+
+    private static double throughput(Map<?, ?> step) {
+        double total = 0;
+        for (Object endpoint : (List<?>) step.get("endpoints")) {
+            total += (double) ((Map<?, ?>) endpoint).get("throughput");
+        }
+        return total;
+    }
+}
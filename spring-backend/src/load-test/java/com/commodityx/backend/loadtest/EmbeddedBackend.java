@@ -0,0 +1,96 @@
+package com.commodityx.backend.loadtest;
+
+import com.commodityx.backend.CommodityExchangeApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The backend started in this JVM on a random port, with an in-memory H2 database seeded before
+ * the context starts: the commodities, and {@code trader1..traderN} each holding 100000.00 in
+ * cash and 100 units of every commodity, so that both sides of the book have takers. Each
+ * backend started in the JVM gets a database of its own, which Spring shuts down with the context.
+ */
+final class EmbeddedBackend implements AutoCloseable {
+
+    private static final String DATABASE_URL =
+            "jdbc:h2:mem:load-test-%d;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final AtomicInteger STARTED = new AtomicInteger();
+
+    private final ConfigurableApplicationContext context;
+    private final Path workDirectory;
+    private final String baseUrl;
+
+    private EmbeddedBackend(ConfigurableApplicationContext context, Path workDirectory, String baseUrl) {
+        this.context = context;
+        this.workDirectory = workDirectory;
+        this.baseUrl = baseUrl;
+    }
+
+    static EmbeddedBackend start(LoadTestOptions options) throws IOException {
+        String databaseUrl = String.format(DATABASE_URL, STARTED.incrementAndGet());
+        Path workDirectory = Files.createTempDirectory("load-test");
+        Path traders = workDirectory.resolve("traders.sql");
+        Files.writeString(traders, tradersSql(options.users, new BCryptPasswordEncoder().encode(options.password)));
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", databaseUrl);
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.defer-datasource-initialization", "true");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("spring.sql.init.data-locations", "classpath:load-test-commodities.sql,file:" + traders);
+        properties.put("trading.journal.dir", workDirectory.resolve("journal").toString());
+        properties.put("trading.ticks.source", "random-walk");
+        properties.put("logging.level.com.commodityx", "INFO");
+        properties.put("logging.level.org.hibernate", "WARN");
+        properties.putAll(options.backendProperties);
+
+        // Spring joins repeated arguments, so every property is passed exactly once
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        // DevTools decides whether to restart before the environment exists, so this must be a system property
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CommodityExchangeApplication.class)
+                .run(args);
+
+        Environment environment = context.getEnvironment();
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port")
+                + environment.getProperty("server.servlet.context-path", "") + "/api";
+        return new EmbeddedBackend(context, workDirectory, baseUrl);
+    }
+
+    private static String tradersSql(int users, String passwordHash) {
+        return "INSERT INTO users (username, email, password, full_name, balance, is_admin, created_at)\n"
+                + "SELECT 'trader' || \"X\", 'trader' || \"X\" || '@load-test.local', '" + passwordHash + "',\n"
+                + "    'Load test trader' || \"X\", 100000.00, FALSE, CURRENT_TIMESTAMP\n"
+                + "FROM SYSTEM_RANGE(1, " + users + ");\n"
+                + "INSERT INTO portfolio (user_id, commodity_id, quantity, average_price, updated_at)\n"
+                + "SELECT u.id, c.id, 100, c.current_price, CURRENT_TIMESTAMP FROM users u CROSS JOIN commodities c;\n";
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(workDirectory);
+    }
+}
@@ -0,0 +1,52 @@
+package com.commodityx.backend.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests a simulated trader makes, weighted by how often a logged-in trader makes them.
+ * Register and login with no weight are only issued when a session starts.
+ */
+enum Endpoint {
+    REGISTER("POST /auth/register", 0),
+    LOGIN("POST /auth/login", 1),
+    LIST_COMMODITIES("GET /commodities", 35),
+    PLACE_ORDER("POST /trading/order", 25),
+    LIST_WATCHLIST("GET /watchlist", 12),
+    ADD_TO_WATCHLIST("POST /watchlist", 5),
+    LIST_ALERTS("GET /alerts", 12),
+    CREATE_ALERT("POST /alerts", 5);
+
+    private static final Endpoint[] VALUES = values();
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (Endpoint endpoint : VALUES) {
+            total += endpoint.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    private final String label;
+    private final int weight;
+
+    Endpoint(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint next() {
+        int pick = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Endpoint endpoint : VALUES) {
+            pick -= endpoint.weight;
+            if (pick < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
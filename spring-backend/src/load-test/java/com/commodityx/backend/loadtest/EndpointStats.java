@@ -0,0 +1,68 @@
+package com.commodityx.backend.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one endpoint. Responses are recorded from any thread; intervals are
+ * drained and accumulated by the reporter alone. A response is ok below 400, rejected from 400
+ * to 499, and failed on a 5xx or when no response arrived.
+ */
+final class EndpointStats {
+
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram total = new Histogram(3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private Histogram interval;
+
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(latencyNanos);
+        if (status > 0 && status < 400) {
+            ok.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Latencies since the last call, also added to the total.
+     */
+    Histogram drainInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    /**
+     * Forgets everything recorded so far, at the end of the warmup.
+     */
+    void reset() {
+        drainInterval();
+        total.reset();
+        ok.reset();
+        rejected.reset();
+        failed.reset();
+    }
+
+    Histogram total() {
+        return total;
+    }
+
+    long ok() {
+        return ok.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,294 @@
+package com.commodityx.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a population of simulated {@link Trader}s against the backend and reports throughput
+ * and latency percentiles per endpoint: every few seconds while running, then as a summary of
+ * the measured period after the warmup, optionally also written as JSON so that runs can be
+ * compared. Exits with 1 if any request failed with a 5xx or got no response. With
+ * {@code --steps} it runs a {@link CapacityTest} instead.
+ *
+ * <pre>
+ * mvn -Pload-test verify -Dload-test.args="--users=2000 --duration=120"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final long DRAIN_TIMEOUT_SECONDS = 35;
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final boolean registersUsers;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Market market = new Market();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final ExecutorService httpExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final HttpClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private LoadTest(LoadTestOptions options, String baseUrl, boolean registersUsers) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.registersUsers = registersUsers;
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        httpExecutor = Executors.newFixedThreadPool(options.threads, daemon("load-test-http"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("load-test-scheduler"));
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.steps != null) {
+            System.exit(CapacityTest.run(options));
+        }
+        EmbeddedBackend backend = options.target == null ? EmbeddedBackend.start(options) : null;
+        Map<String, Object> result;
+        try {
+            result = backend == null
+                    ? run(options, options.target, true)
+                    : run(options, backend.baseUrl(), false);
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", options.target == null ? "embedded" : options.target);
+        report.putAll(result);
+        write(options.out, report);
+        long failed = (long) result.get("failed");
+        if (failed > 0) {
+            System.out.println(failed + " requests failed");
+        }
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    /**
+     * One run of {@code options.users} traders against {@code baseUrl}, returning the summary
+     * of the measured period.
+     */
+    static Map<String, Object> run(LoadTestOptions options, String baseUrl, boolean registersUsers)
+            throws InterruptedException {
+        LoadTest loadTest = new LoadTest(options, baseUrl, registersUsers);
+        try {
+            return loadTest.run();
+        } finally {
+            loadTest.scheduler.shutdownNow();
+            loadTest.httpExecutor.shutdownNow();
+        }
+    }
+
+    static void write(String out, Map<String, Object> result) throws IOException {
+        if (out == null) {
+            return;
+        }
+        Path path = Path.of(out);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), result);
+        System.out.println("Results written to " + path);
+    }
+
+    private Map<String, Object> run() throws InterruptedException {
+        log(String.format("%d traders against %s: ramp-up %ds, warmup %ds, measuring %ds, think time %dms",
+                options.users, baseUrl, options.rampSeconds, options.warmupSeconds, options.durationSeconds,
+                options.thinkMillis));
+        long rampMillis = TimeUnit.SECONDS.toMillis(options.rampSeconds);
+        for (int i = 0; i < options.users; i++) {
+            Trader trader = new Trader(this, "trader" + (i + 1));
+            scheduler.schedule(trader::start, rampMillis * i / options.users, TimeUnit.MILLISECONDS);
+        }
+
+        long started = System.nanoTime();
+        long warmupEnds = started + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long ends = warmupEnds + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        long reportNanos = TimeUnit.SECONDS.toNanos(options.reportSeconds);
+        long nextReport = started + reportNanos;
+        long lastDrain = started;
+        boolean measuring = options.warmupSeconds == 0;
+        while (true) {
+            long wake = Math.min(nextReport, measuring ? ends : warmupEnds);
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, wake - System.nanoTime()));
+            long now = System.nanoTime();
+            if (!measuring && now >= warmupEnds) {
+                stats.values().forEach(EndpointStats::reset);
+                lastDrain = now;
+                nextReport = now + reportNanos;
+                measuring = true;
+                log("Warmup over, measuring");
+            } else if (now >= nextReport) {
+                report(now - started, now - lastDrain);
+                lastDrain = now;
+                nextReport += reportNanos;
+            }
+            if (measuring && now >= ends) {
+                break;
+            }
+        }
+        running = false;
+        stats.values().forEach(EndpointStats::drainInterval);
+        Map<String, Object> result = summarize(options.durationSeconds);
+        awaitInFlight();
+        return result;
+    }
+
+    /**
+     * Lets requests still in flight complete, so an embedded backend is not closed under them.
+     */
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+    }
+
+    private void report(long elapsedNanos, long intervalNanos) {
+        StringBuilder report = new StringBuilder(String.format("[%4ds]", TimeUnit.NANOSECONDS.toSeconds(elapsedNanos)));
+        double seconds = intervalNanos / 1e9;
+        stats.forEach((endpoint, endpointStats) -> {
+            Histogram interval = endpointStats.drainInterval();
+            if (interval.getTotalCount() > 0) {
+                report.append(String.format("%n  %-22s %8.1f/s  p50 %8.2f  p99 %8.2f  max %8.2f ms",
+                        endpoint.label(), interval.getTotalCount() / seconds, millis(interval.getValueAtPercentile(50)),
+                        millis(interval.getValueAtPercentile(99)), millis(interval.getMaxValue())));
+            }
+        });
+        log(report.toString());
+    }
+
+    private Map<String, Object> summarize(int seconds) {
+        StringBuilder summary = new StringBuilder(String.format("Measured %ds%n%-22s %9s %9s %9s %9s %9s %9s %9s %9s %9s %9s",
+                seconds, "Endpoint", "Requests", "Req/s", "OK", "Rejected", "Failed", "p50 ms", "p90 ms", "p99 ms",
+                "p99.9 ms", "Max ms"));
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        long failed = 0;
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram total = endpointStats.total();
+            if (total.getTotalCount() == 0) {
+                continue;
+            }
+            failed += endpointStats.failed();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", entry.getKey().label());
+            row.put("requests", total.getTotalCount());
+            row.put("throughput", total.getTotalCount() / (double) seconds);
+            row.put("ok", endpointStats.ok());
+            row.put("rejected", endpointStats.rejected());
+            row.put("failed", endpointStats.failed());
+            row.put("p50Ms", millis(total.getValueAtPercentile(50)));
+            row.put("p90Ms", millis(total.getValueAtPercentile(90)));
+            row.put("p99Ms", millis(total.getValueAtPercentile(99)));
+            row.put("p999Ms", millis(total.getValueAtPercentile(99.9)));
+            row.put("maxMs", millis(total.getMaxValue()));
+            endpoints.add(row);
+            summary.append(String.format("%n%-22s %9d %9.1f %9d %9d %9d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    row.get("endpoint"), row.get("requests"), row.get("throughput"), row.get("ok"), row.get("rejected"),
+                    row.get("failed"), row.get("p50Ms"), row.get("p90Ms"), row.get("p99Ms"), row.get("p999Ms"),
+                    row.get("maxMs")));
+        }
+        log(summary.toString());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", options.users);
+        result.put("thinkMillis", options.thinkMillis);
+        result.put("durationSeconds", seconds);
+        result.put("failed", failed);
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    void sent() {
+        inFlight.incrementAndGet();
+    }
+
+    void record(Endpoint endpoint, long latencyNanos, int status) {
+        inFlight.decrementAndGet();
+        if (running) {
+            stats.get(endpoint).record(latencyNanos, status);
+        }
+    }
+
+    void log(String message) {
+        System.out.println(message);
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    boolean registersUsers() {
+        return registersUsers;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    String password() {
+        return options.password;
+    }
+
+    long thinkMillis() {
+        return options.thinkMillis;
+    }
+
+    ObjectMapper mapper() {
+        return mapper;
+    }
+
+    Market market() {
+        return market;
+    }
+
+    HttpClient client() {
+        return client;
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+}
@@ -0,0 +1,97 @@
+package com.commodityx.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all given as {@code --name=value}. Options whose name contains a dot,
+ * such as {@code --trading.ticks.source=none}, are passed on to the embedded backend.
+ */
+final class LoadTestOptions {
+
+    /** Base URL of a running backend, e.g. http://localhost:5000/api/api; embedded when absent. */
+    String target;
+    int users = 1000;
+    int rampSeconds = 30;
+    int warmupSeconds = 30;
+    int durationSeconds = 60;
+    long thinkMillis = 1000;
+    int reportSeconds = 10;
+    int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    String password = "loadtest1";
+    String out;
+    /** Trader populations to step through for a capacity comparison; a single run when absent. */
+    int[] steps;
+    List<String> modes = List.of(CapacityTest.PLATFORM, CapacityTest.VIRTUAL);
+    double sloP99Millis = 500;
+    final Map<String, String> backendProperties = new LinkedHashMap<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "target" -> options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "users" -> options.users = Integer.parseInt(value);
+                case "ramp" -> options.rampSeconds = Integer.parseInt(value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                case "think-ms" -> options.thinkMillis = Long.parseLong(value);
+                case "report" -> options.reportSeconds = Integer.parseInt(value);
+                case "threads" -> options.threads = Integer.parseInt(value);
+                case "password" -> options.password = value;
+                case "out" -> options.out = value;
+                case "steps" -> options.steps = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                case "modes" -> options.modes = List.of(value.split(","));
+                case "slo-p99-ms" -> options.sloP99Millis = Double.parseDouble(value);
+                default -> {
+                    if (!name.contains(".")) {
+                        throw new IllegalArgumentException("Unknown option --" + name);
+                    }
+                    options.backendProperties.put(name, value);
+                }
+            }
+        }
+        if (options.users <= 0 || options.durationSeconds <= 0 || options.reportSeconds <= 0) {
+            throw new IllegalArgumentException("users, duration and report must be positive");
+        }
+        if (options.steps != null && (options.steps.length == 0 || Arrays.stream(options.steps).anyMatch(users -> users <= 0))) {
+            throw new IllegalArgumentException("steps must be positive");
+        }
+        for (String mode : options.modes) {
+            if (!mode.equals(CapacityTest.PLATFORM) && !mode.equals(CapacityTest.VIRTUAL)) {
+                throw new IllegalArgumentException("Unknown mode " + mode + ", expected platform or virtual");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * The same options for a population of {@code users}.
+     */
+    LoadTestOptions withUsers(int users) {
+        LoadTestOptions options = new LoadTestOptions();
+        options.target = target;
+        options.users = users;
+        options.rampSeconds = rampSeconds;
+        options.warmupSeconds = warmupSeconds;
+        options.durationSeconds = durationSeconds;
+        options.thinkMillis = thinkMillis;
+        options.reportSeconds = reportSeconds;
+        options.threads = threads;
+        options.password = password;
+        options.out = out;
+        options.steps = steps;
+        options.modes = modes;
+        options.sloP99Millis = sloP99Millis;
+        options.backendProperties.putAll(backendProperties);
+        return options;
+    }
+}
@@ -0,0 +1,53 @@
+package com.commodityx.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The commodities and prices traders last saw, shared so that their orders land around the
+ * current price and cross each other.
+ */
+final class Market {
+
+    private volatile Quote[] quotes = new Quote[0];
+
+    void update(JsonNode commodities) {
+        Quote[] updated = new Quote[commodities.size()];
+        for (int i = 0; i < updated.length; i++) {
+            JsonNode commodity = commodities.get(i);
+            updated[i] = new Quote(commodity.path("id").asLong(), commodity.path("currentPrice").asDouble());
+        }
+        quotes = updated;
+    }
+
+    boolean isKnown() {
+        return quotes.length > 0;
+    }
+
+    Quote pick() {
+        Quote[] current = quotes;
+        return current[ThreadLocalRandom.current().nextInt(current.length)];
+    }
+
+    static final class Quote {
+        final long commodityId;
+        final double price;
+
+        private Quote(long commodityId, double price) {
+            this.commodityId = commodityId;
+            this.price = price;
+        }
+
+        /**
+         * A price within {@code spread} (a fraction) either side of the quote.
+         */
+        BigDecimal priceNear(double spread) {
+            double offset = (ThreadLocalRandom.current().nextDouble() * 2 - 1) * spread;
+            BigDecimal near = BigDecimal.valueOf(price * (1 + offset)).setScale(2, RoundingMode.HALF_UP);
+            return near.signum() > 0 ? near : new BigDecimal("0.01");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.commodityx.backend.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated user. A session logs in (registering first against a backend that does not
+ * know the user), lists the commodities, and then keeps picking a weighted random request,
+ * waiting an exponentially distributed think time after each response. A trader has at most one
+ * request in flight, so the offered load follows the backend's response times.
+ */
+final class Trader {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final double ORDER_SPREAD = 0.005;
+    private static final double ALERT_SPREAD = 0.05;
+
+    private final LoadTest loadTest;
+    private final String username;
+    private volatile String token;
+    private volatile String commoditiesEtag;
+
+    Trader(LoadTest loadTest, String username) {
+        this.loadTest = loadTest;
+        this.username = username;
+    }
+
+    void start() {
+        send(Endpoint.LOGIN, post("/auth/login", Map.of("username", username, "password", loadTest.password())),
+                response -> {
+                    if (response.statusCode() == 200) {
+                        signedIn(response);
+                    } else if (response.statusCode() < 500 && loadTest.registersUsers()) {
+                        register();
+                    } else {
+                        think(this::start);
+                    }
+                });
+    }
+
+    private void register() {
+        Map<String, String> request = Map.of("username", username, "email", username + "@load-test.local",
+                "password", loadTest.password(), "fullName", "Load test " + username);
+        send(Endpoint.REGISTER, post("/auth/register", request), response -> {
+            if (response.statusCode() == 200) {
+                signedIn(response);
+            } else {
+                think(this::start);
+            }
+        });
+    }
+
+    private void signedIn(HttpResponse<byte[]> response) throws IOException {
+        token = loadTest.mapper().readTree(response.body()).path("token").asText();
+        listCommodities();
+    }
+
+    private void next() {
+        Endpoint endpoint = loadTest.market().isKnown() ? Endpoint.next() : Endpoint.LIST_COMMODITIES;
+        switch (endpoint) {
+            case LOGIN -> start();
+            case LIST_COMMODITIES -> listCommodities();
+            case PLACE_ORDER -> placeOrder();
+            case LIST_WATCHLIST -> send(endpoint, get("/watchlist"), this::done);
+            case ADD_TO_WATCHLIST -> send(endpoint,
+                    post("/watchlist", Map.of("commodityId", loadTest.market().pick().commodityId)), this::done);
+            case LIST_ALERTS -> send(endpoint, get("/alerts"), this::done);
+            case CREATE_ALERT -> createAlert();
+            default -> throw new IllegalStateException("Not part of the mix: " + endpoint);
+        }
+    }
+
+    private void listCommodities() {
+        HttpRequest.Builder request = get("/commodities");
+        String etag = commoditiesEtag;
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        send(Endpoint.LIST_COMMODITIES, request, response -> {
+            if (response.statusCode() == 200) {
+                JsonNode commodities = loadTest.mapper().readTree(response.body());
+                loadTest.market().update(commodities);
+                commoditiesEtag = response.headers().firstValue("ETag").orElse(null);
+            }
+            done(response);
+        });
+    }
+
+    private void placeOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Market.Quote quote = loadTest.market().pick();
+        BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(50), 2);
+        Map<String, Object> order = Map.of("commodityId", quote.commodityId,
+                "orderType", random.nextBoolean() ? "BUY" : "SELL",
+                "quantity", quantity, "price", quote.priceNear(ORDER_SPREAD));
+        send(Endpoint.PLACE_ORDER, post("/trading/order", order), this::done);
+    }
+
+    private void createAlert() {
+        Market.Quote quote = loadTest.market().pick();
+        boolean above = ThreadLocalRandom.current().nextBoolean();
+        Map<String, Object> alert = Map.of("commodityId", quote.commodityId,
+                "targetPrice", quote.priceNear(ALERT_SPREAD), "condition", above ? "ABOVE" : "BELOW");
+        send(Endpoint.CREATE_ALERT, post("/alerts", alert), this::done);
+    }
+
+    private void done(HttpResponse<byte[]> response) {
+        // An expired or unknown token sends the trader back through login
+        think(response.statusCode() == 401 ? this::start : this::next);
+    }
+
+    private void think(Runnable then) {
+        if (!loadTest.isRunning()) {
+            return;
+        }
+        double mean = loadTest.thinkMillis();
+        long delay = (long) Math.min(10 * mean, -mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+        loadTest.scheduler().schedule(() -> {
+            try {
+                then.run();
+            } catch (RuntimeException e) {
+                loadTest.log("Trader " + username + " failed to send: " + e);
+                think(this::next);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(Endpoint endpoint, HttpRequest.Builder request, ResponseHandler handler) {
+        loadTest.sent();
+        long started = System.nanoTime();
+        loadTest.client().sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    loadTest.record(endpoint, System.nanoTime() - started, error == null ? response.statusCode() : 0);
+                    if (error != null) {
+                        think(token == null ? this::start : this::next);
+                        return;
+                    }
+                    try {
+                        handler.accept(response);
+                    } catch (IOException | RuntimeException e) {
+                        loadTest.log("Trader " + username + " could not handle " + endpoint.label() + ": " + e);
+                        think(this::next);
+                    }
+                });
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(loadTest.mapper().writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(loadTest.baseUrl() + path))
+                .timeout(REQUEST_TIMEOUT);
+        String current = token;
+        if (current != null && !path.startsWith("/auth/")) {
+            request.header("Authorization", "Bearer " + current);
+        }
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface ResponseHandler {
+        void accept(HttpResponse<byte[]> response) throws IOException;
+    }
+}
@@ -0,0 +1,11 @@
+INSERT INTO commodities (symbol, name, current_price, price_change_24h, high_24h, low_24h, volume_24h, updated_at) VALUES
+('GC=F', 'Gold', 2050.00, 15.50, 2065.00, 2035.00, 1250000.50, CURRENT_TIMESTAMP),
+('SI=F', 'Silver', 24.50, -0.35, 24.90, 24.20, 850000.75, CURRENT_TIMESTAMP),
+('CL=F', 'Crude Oil', 75.25, 2.10, 76.50, 73.80, 5500000.00, CURRENT_TIMESTAMP),
+('NG=F', 'Natural Gas', 2.85, -0.15, 2.95, 2.75, 3200000.00, CURRENT_TIMESTAMP),
+('HG=F', 'Copper', 3.85, 0.08, 3.92, 3.78, 920000.50, CURRENT_TIMESTAMP),
+('PL=F', 'Platinum', 925.00, -8.50, 935.00, 920.00, 180000.25, CURRENT_TIMESTAMP),
+('PA=F', 'Palladium', 1050.00, 12.00, 1065.00, 1035.00, 95000.50, CURRENT_TIMESTAMP),
+('ZC=F', 'Corn', 4.75, 0.12, 4.82, 4.68, 2100000.00, CURRENT_TIMESTAMP),
+('ZW=F', 'Wheat', 5.90, -0.22, 6.05, 5.85, 1650000.00, CURRENT_TIMESTAMP),
+('KC=F', 'Coffee', 1.85, 0.05, 1.89, 1.81, 750000.00, CURRENT_TIMESTAMP);
@@ -0,0 +1,49 @@
+package com.commodityx.backend.account;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory cash balance and holdings of one user, the authoritative copy while the
+ * application runs. Cash reserved by resting buy orders has already been deducted.
+ * Only touch an account while holding its user's {@link AccountLocks} stripe.
+ */
+public class Account {
+
+    private final long userId;
+    private long balanceMicros;
+    private final Map<Long, Position> positions = new HashMap<>();
+
+    Account(long userId, long balanceMicros) {
+        this.userId = userId;
+        this.balanceMicros = balanceMicros;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getBalanceMicros() {
+        return balanceMicros;
+    }
+
+    public void credit(long micros) {
+        balanceMicros = Math.addExact(balanceMicros, micros);
+    }
+
+    public void debit(long micros) {
+        balanceMicros = Math.subtractExact(balanceMicros, micros);
+    }
+
+    public Position getPosition(long commodityId) {
+        return positions.get(commodityId);
+    }
+
+    public Position openPosition(long commodityId) {
+        return positions.computeIfAbsent(commodityId, id -> new Position(id, 0, 0));
+    }
+
+    void loadPosition(long commodityId, long quantityLots, long averagePriceTicks) {
+        positions.put(commodityId, new Position(commodityId, quantityLots, averagePriceTicks));
+    }
+}
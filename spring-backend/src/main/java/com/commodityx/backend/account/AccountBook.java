@@ -0,0 +1,54 @@
+package com.commodityx.backend.account;
+
+import com.commodityx.backend.engine.PriceScale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the in-memory accounts of users who have traded since startup. An account is loaded
+ * from the database the first time it is needed; from then on the trading core changes it in
+ * memory and the write-behind pipeline carries the changes back to the database.
+ */
+@Component
+public class AccountBook {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentMap<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the user's account. The caller must hold the user's {@link AccountLocks} stripe.
+     */
+    public Account get(long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            account = load(userId);
+            accounts.put(userId, account);
+        }
+        return account;
+    }
+
+    private Account load(long userId) {
+        List<BigDecimal> balance = jdbcTemplate.queryForList(
+                "SELECT balance FROM users WHERE id = ?", BigDecimal.class, userId);
+        if (balance.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+
+        Account account = new Account(userId, PriceScale.toMicros(balance.get(0)));
+        jdbcTemplate.query("SELECT commodity_id, quantity, average_price FROM portfolio WHERE user_id = ?",
+                rs -> {
+                    account.loadPosition(rs.getLong("commodity_id"),
+                            PriceScale.toLots(rs.getBigDecimal("quantity")),
+                            PriceScale.toTicks(rs.getBigDecimal("average_price")));
+                }, userId);
+        return account;
+    }
+}
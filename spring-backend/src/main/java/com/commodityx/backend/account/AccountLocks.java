@@ -0,0 +1,74 @@
+package com.commodityx.backend.account;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks that serialize balance and holding changes per user. A user always maps to
+ * the same stripe, so one user's orders run one at a time while different users only
+ * contend when they happen to share a stripe. Hold the lock while changing the in-memory
+ * {@link Account} and journaling the change, so the next writer sees it and the journal
+ * records changes in the order they were made; the database is written later by the
+ * write-behind pipeline.
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLocks(@Value("${trading.account-lock-stripes:1024}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public <T> T withLock(long userId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripe(userId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks every stripe the given users map to, in ascending stripe order so that two
+     * callers locking overlapping sets can never deadlock.
+     */
+    public <T> T withLocks(long[] userIds, Supplier<T> action) {
+        int[] held = new int[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            held[i] = stripe(userIds[i]);
+        }
+        Arrays.sort(held);
+
+        int locked = 0;
+        try {
+            for (int i = 0; i < held.length; i++) {
+                if (i == 0 || held[i] != held[i - 1]) {
+                    stripes[held[i]].lock();
+                    held[locked++] = held[i];
+                }
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[held[i]].unlock();
+            }
+        }
+    }
+
+    private int stripe(long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,94 @@
+package com.commodityx.backend.account;
+
+import com.commodityx.backend.model.OrderType;
+
+/**
+ * An order that is still live on a book, with the reservation it holds. Mutated only under
+ * the owner's {@link AccountLocks} stripe.
+ */
+public class OpenOrder {
+
+    private final long orderId;
+    private final long userId;
+    private final long commodityId;
+    private final OrderType side;
+    private final long priceTicks;
+    private final long quantityLots;
+    private long filledLots;
+    private long cancelledLots;
+    private boolean booked;
+
+    public OpenOrder(long orderId, long userId, long commodityId, OrderType side,
+                     long priceTicks, long quantityLots, long filledLots) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.commodityId = commodityId;
+        this.side = side;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+        this.filledLots = filledLots;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getCommodityId() {
+        return commodityId;
+    }
+
+    public OrderType getSide() {
+        return side;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
+    public long getFilledLots() {
+        return filledLots;
+    }
+
+    public long getCancelledLots() {
+        return cancelledLots;
+    }
+
+    public void fill(long lots) {
+        filledLots += lots;
+    }
+
+    public void cancel(long lots) {
+        cancelledLots += lots;
+    }
+
+    /**
+     * Marks the order as processed by its book, after which any unfilled remainder rests there.
+     */
+    public void markBooked() {
+        booked = true;
+    }
+
+    public boolean isBooked() {
+        return booked;
+    }
+
+    public boolean isFilled() {
+        return filledLots == quantityLots;
+    }
+
+    /**
+     * True once every lot is accounted for. A cancel can be settled before fills that the book
+     * matched ahead of it, so the order stays registered until those fills arrive too.
+     */
+    public boolean isDone() {
+        return filledLots + cancelledLots == quantityLots;
+    }
+}
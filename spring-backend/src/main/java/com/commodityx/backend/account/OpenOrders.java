@@ -0,0 +1,28 @@
+package com.commodityx.backend.account;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of live orders by id. An order is added when it is accepted and removed once all of
+ * its quantity has been filled or cancelled.
+ */
+@Component
+public class OpenOrders {
+
+    private final ConcurrentMap<Long, OpenOrder> orders = new ConcurrentHashMap<>();
+
+    public void add(OpenOrder order) {
+        orders.put(order.getOrderId(), order);
+    }
+
+    public OpenOrder get(long orderId) {
+        return orders.get(orderId);
+    }
+
+    public void remove(long orderId) {
+        orders.remove(orderId);
+    }
+}
@@ -0,0 +1,57 @@
+package com.commodityx.backend.account;
+
+import com.commodityx.backend.engine.PriceScale;
+
+/**
+ * A user's holding in one commodity. Lots reserved by resting sell orders have already been
+ * taken out of {@code quantityLots}.
+ */
+public class Position {
+
+    private final long commodityId;
+    private long quantityLots;
+    private long averagePriceTicks;
+    private long version;
+
+    Position(long commodityId, long quantityLots, long averagePriceTicks) {
+        this.commodityId = commodityId;
+        this.quantityLots = quantityLots;
+        this.averagePriceTicks = averagePriceTicks;
+    }
+
+    public long getCommodityId() {
+        return commodityId;
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
+    public long getAveragePriceTicks() {
+        return averagePriceTicks;
+    }
+
+    /**
+     * Counts the changes made to this holding, so copies of it published in a different order
+     * from the one they were made in can be told apart.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void buy(long lots, long priceTicks) {
+        averagePriceTicks = PriceScale.averagePriceTicks(quantityLots, averagePriceTicks, lots, priceTicks);
+        quantityLots += lots;
+        version++;
+    }
+
+    public void reserve(long lots) {
+        quantityLots -= lots;
+        version++;
+    }
+
+    public void release(long lots) {
+        quantityLots += lots;
+        version++;
+    }
+}
@@ -0,0 +1,272 @@
+package com.commodityx.backend.alert;
+
+import com.commodityx.backend.dto.AlertEngineStats;
+import com.commodityx.backend.dto.AlertNotification;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.AlertCondition;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.repository.CommodityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates active price alerts against every price tick. Per commodity, ABOVE thresholds are
+ * kept in ascending and BELOW thresholds in descending order, each price level holding its
+ * alerts as packed primitives, so a tick only visits the levels it crossed: O(log n + k), and
+ * O(1) when it crosses nothing. Fired alerts leave the index at once; a writer thread
+ * deactivates them in JDBC batches and then pushes them to their owners.
+ */
+@Component
+public class AlertEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
+    private static final long MAX_BACKOFF_MS = 5000;
+    private static final String LOAD_ACTIVE = "SELECT id, user_id, commodity_id, `condition`, target_price "
+            + "FROM price_alerts WHERE is_active = true";
+    private static final String DEACTIVATE = "UPDATE price_alerts SET is_active = false, triggered_at = ? "
+            + "WHERE id = ? AND is_active = true";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CommodityRepository commodityRepository;
+
+    @Autowired
+    private AlertNotifier alertNotifier;
+
+    @Value("${trading.alerts.batch-size:1000}")
+    private int batchSize;
+
+    private final ConcurrentMap<Long, CommodityAlerts> books = new ConcurrentHashMap<>();
+    // Bounded by the number of active alerts, since each fires once
+    private final BlockingQueue<TriggeredAlert> triggered = new LinkedBlockingQueue<>();
+    private final AtomicLong activeAlerts = new AtomicLong();
+    private final AtomicLong triggeredAlerts = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+
+    @PostConstruct
+    public void start() {
+        for (Commodity commodity : commodityRepository.findAll()) {
+            books.put(commodity.getId(), new CommodityAlerts(commodity.getSymbol()));
+        }
+        jdbcTemplate.query(LOAD_ACTIVE, rs -> {
+            add(rs.getLong(1), rs.getLong(2), rs.getLong(3), AlertCondition.valueOf(rs.getString(4)),
+                    PriceScale.toTicks(rs.getBigDecimal(5)));
+        });
+        logger.info("Loaded {} active price alerts", activeAlerts.get());
+
+        running = true;
+        writer = new Thread(this::drain, "price-alerts");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Alerts still queued stay active in the database and fire again after a restart
+    }
+
+    public void add(long alertId, long userId, long commodityId, AlertCondition condition, long targetTicks) {
+        CommodityAlerts alerts = book(commodityId);
+        synchronized (alerts) {
+            TreeMap<Long, AlertLevel> side = condition == AlertCondition.ABOVE ? alerts.above : alerts.below;
+            side.computeIfAbsent(targetTicks, price -> new AlertLevel()).add(alertId, userId);
+            alerts.updateBounds();
+        }
+        activeAlerts.incrementAndGet();
+    }
+
+    public boolean remove(long alertId, long commodityId, AlertCondition condition, long targetTicks) {
+        CommodityAlerts alerts = books.get(commodityId);
+        if (alerts == null) {
+            return false;
+        }
+        synchronized (alerts) {
+            TreeMap<Long, AlertLevel> side = condition == AlertCondition.ABOVE ? alerts.above : alerts.below;
+            AlertLevel level = side.get(targetTicks);
+            if (level == null || !level.remove(alertId)) {
+                return false;
+            }
+            if (level.size == 0) {
+                side.remove(targetTicks);
+                alerts.updateBounds();
+            }
+        }
+        activeAlerts.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Fires every alert the price crossed: ABOVE alerts at or below it and BELOW alerts at or above it.
+     */
+    public void onPrice(long commodityId, long priceTicks) {
+        CommodityAlerts alerts = books.get(commodityId);
+        if (alerts == null || (priceTicks < alerts.lowestAbove && priceTicks > alerts.highestBelow)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (alerts) {
+            fire(alerts, alerts.above, AlertCondition.ABOVE, commodityId, priceTicks, now);
+            fire(alerts, alerts.below, AlertCondition.BELOW, commodityId, priceTicks, now);
+            alerts.updateBounds();
+        }
+    }
+
+    public AlertEngineStats getStats() {
+        return new AlertEngineStats(activeAlerts.get(), triggeredAlerts.get(), triggered.size(),
+                alertNotifier.getStreamCount());
+    }
+
+    private void fire(CommodityAlerts alerts, TreeMap<Long, AlertLevel> side, AlertCondition condition,
+                      long commodityId, long priceTicks, LocalDateTime now) {
+        // Both maps iterate nearest-first, so the crossed levels are a prefix
+        while (!side.isEmpty()) {
+            long threshold = side.firstKey();
+            if (condition == AlertCondition.ABOVE ? threshold > priceTicks : threshold < priceTicks) {
+                break;
+            }
+            AlertLevel level = side.pollFirstEntry().getValue();
+            for (int i = 0; i < level.size; i++) {
+                triggered.add(new TriggeredAlert(level.entries[2 * i + 1], new AlertNotification(level.entries[2 * i],
+                        commodityId, alerts.symbol, condition.name(), PriceScale.fromTicks(threshold),
+                        PriceScale.fromTicks(priceTicks), now)));
+            }
+            activeAlerts.addAndGet(-level.size);
+            triggeredAlerts.addAndGet(level.size);
+        }
+    }
+
+    private void drain() {
+        List<TriggeredAlert> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(triggered.take());
+                triggered.drainTo(batch, batchSize - 1);
+                deactivate(batch);
+                alertNotifier.push(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deactivate(List<TriggeredAlert> batch) throws InterruptedException {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (TriggeredAlert alert : batch) {
+            rows.add(new Object[]{Timestamp.valueOf(alert.notification.getTriggeredAt()),
+                    alert.notification.getAlertId()});
+        }
+
+        long backoff = 100;
+        while (true) {
+            try {
+                jdbcTemplate.batchUpdate(DEACTIVATE, rows);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to deactivate {} triggered alerts, retrying in {} ms: {}",
+                        rows.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private CommodityAlerts book(long commodityId) {
+        CommodityAlerts alerts = books.get(commodityId);
+        if (alerts != null) {
+            return alerts;
+        }
+        Commodity commodity = commodityRepository.findById(commodityId)
+                .orElseThrow(() -> new RuntimeException("Commodity not found"));
+        return books.computeIfAbsent(commodityId, id -> new CommodityAlerts(commodity.getSymbol()));
+    }
+
+    /**
+     * The alert index of one commodity, guarded by its own monitor. The nearest thresholds are
+     * mirrored in volatile fields so a tick that crosses nothing does not take the lock.
+     */
+    private static final class CommodityAlerts {
+        private final String symbol;
+        private final TreeMap<Long, AlertLevel> above = new TreeMap<>();
+        private final TreeMap<Long, AlertLevel> below = new TreeMap<>(Comparator.reverseOrder());
+        private volatile long lowestAbove = Long.MAX_VALUE;
+        private volatile long highestBelow = Long.MIN_VALUE;
+
+        private CommodityAlerts(String symbol) {
+            this.symbol = symbol;
+        }
+
+        private void updateBounds() {
+            lowestAbove = above.isEmpty() ? Long.MAX_VALUE : above.firstKey();
+            highestBelow = below.isEmpty() ? Long.MIN_VALUE : below.firstKey();
+        }
+    }
+
+    /**
+     * Alerts sharing a threshold, packed as (alert id, user id) pairs.
+     */
+    private static final class AlertLevel {
+        private long[] entries = new long[4];
+        private int size;
+
+        private void add(long alertId, long userId) {
+            if (2 * size == entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[2 * size] = alertId;
+            entries[2 * size + 1] = userId;
+            size++;
+        }
+
+        private boolean remove(long alertId) {
+            for (int i = 0; i < size; i++) {
+                if (entries[2 * i] == alertId) {
+                    size--;
+                    entries[2 * i] = entries[2 * size];
+                    entries[2 * i + 1] = entries[2 * size + 1];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class TriggeredAlert {
+        final long userId;
+        final AlertNotification notification;
+
+        private TriggeredAlert(long userId, AlertNotification notification) {
+            this.userId = userId;
+            this.notification = notification;
+        }
+    }
+}
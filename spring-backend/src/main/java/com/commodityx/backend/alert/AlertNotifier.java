@@ -0,0 +1,59 @@
+package com.commodityx.backend.alert;
+
+import com.commodityx.backend.stream.UserStreamHub;
+import com.commodityx.backend.stream.UserStreams;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Pushes triggered alerts to their owners over SSE. A user may hold a few streams, e.g. one
+ * per device; alerts that fire while none is open are only recorded on the alert itself.
+ * The alert writer only queues notifications, so a slow client cannot hold it up; when a
+ * stream's queue is full a notification is dropped and counted.
+ */
+@Component
+public class AlertNotifier {
+
+    @Autowired
+    private UserStreamHub userStreamHub;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.alerts.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${trading.alerts.stream-queue-capacity:1024}")
+    private int queueCapacity;
+
+    private UserStreams streams;
+
+    @PostConstruct
+    public void start() {
+        streams = userStreamHub.topic("alert", maxStreamsPerUser, queueCapacity, false);
+        FunctionCounter.builder("trading.alerts.stream.dropped", streams, UserStreams::getDroppedEvents)
+                .description("Alert notifications dropped because a stream's queue was full")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return streams.subscribe(userId);
+    }
+
+    public int getStreamCount() {
+        return streams.getStreamCount();
+    }
+
+    void push(List<AlertEngine.TriggeredAlert> alerts) {
+        for (AlertEngine.TriggeredAlert alert : alerts) {
+            streams.publish(alert.userId, alert.notification);
+        }
+    }
+}
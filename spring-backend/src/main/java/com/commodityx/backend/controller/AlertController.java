@@ -1,13 +1,15 @@
 package com.commodityx.backend.controller;
 
 import com.commodityx.backend.dto.AlertRequest;
-import com.commodityx.backend.model.PriceAlert;
+import com.commodityx.backend.dto.PriceAlertView;
 import com.commodityx.backend.service.AlertService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,21 +20,40 @@ public class AlertController {
     private AlertService alertService;
 
     @GetMapping
-    public ResponseEntity<List<PriceAlert>> getUserAlerts() {
-        List<PriceAlert> alerts = alertService.getUserAlerts();
+    public ResponseEntity<List<PriceAlertView>> getUserAlerts() {
+        List<PriceAlertView> alerts = alertService.getUserAlerts();
         return ResponseEntity.ok(alerts);
     }
 
     @PostMapping
     public ResponseEntity<?> createAlert(@Valid @RequestBody AlertRequest request) {
         try {
-            PriceAlert alert = alertService.createAlert(request);
+            PriceAlertView alert = alertService.createAlert(request);
             return ResponseEntity.ok(alert);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * Server-sent events with an "alert" event for each of the user's alerts as it triggers.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamAlerts() {
+        try {
+            return ResponseEntity.ok(alertService.streamAlerts());
+        } catch (RuntimeException e) {
+            SseEmitter error = new SseEmitter(0L);
+            try {
+                error.send(SseEmitter.event().name("error").data(new ErrorResponse(e.getMessage())));
+            } catch (IOException ignored) {
+                // Not yet connected; the event is buffered
+            }
+            error.complete();
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteAlert(@PathVariable Long id) {
         try {
@@ -40,7 +40,7 @@ public class AuthController {
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile() {
         try {
-            User user = authService.getCurrentUser();
+            User user = authService.getCurrentUserProfile();
             return ResponseEntity.ok(user);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
@@ -1,11 +1,20 @@
 package com.commodityx.backend.controller;
 
+import com.commodityx.backend.dto.CommodityChanges;
+import com.commodityx.backend.dto.PriceHistoryResponse;
+import com.commodityx.backend.market.CommoditySnapshot;
 import com.commodityx.backend.model.Commodity;
 import com.commodityx.backend.service.CommodityService;
+import com.commodityx.backend.stream.PriceStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -15,10 +24,40 @@ public class CommodityController {
     @Autowired
     private CommodityService commodityService;
 
+    @Autowired
+    private PriceStream priceStream;
+
+    /**
+     * The full list, as JSON encoded and gzipped once per snapshot version. The ETag is the
+     * snapshot version, so a client revalidating with If-None-Match gets a bodiless 304 until
+     * a price changes.
+     */
     @GetMapping
-    public ResponseEntity<List<Commodity>> getAllCommodities() {
-        List<Commodity> commodities = commodityService.getAllCommodities();
-        return ResponseEntity.ok(commodities);
+    public ResponseEntity<byte[]> getAllCommodities(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CommoditySnapshot snapshot = commodityService.getSnapshot();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(snapshot.getVersion() + "-gzip")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.getGzippedJson());
+        }
+        return response.eTag(Long.toString(snapshot.getVersion())).body(snapshot.getJson());
+    }
+
+    /**
+     * Only the commodities whose price changed after the given snapshot version, found in the
+     * list's ETag or as the {@code version} of a previous answer. Falls back to every commodity,
+     * with {@code full} set, when the client is too far behind.
+     */
+    @GetMapping(params = "since")
+    public ResponseEntity<CommodityChanges> getChangesSince(@RequestParam long since) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(commodityService.getChangesSince(since));
     }
 
     @GetMapping("/{id}")
@@ -31,6 +70,55 @@ public class CommodityController {
         }
     }
 
+    /**
+     * OHLCV candles covering the timeframe (1H, 1D, 1W, 1M, 3M or 1Y) at a resolution suited
+     * to it, or at the requested one (1m, 5m, 1h or 1d).
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getPriceHistory(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "1D") String timeframe,
+                                             @RequestParam(required = false) String resolution) {
+        try {
+            PriceHistoryResponse history = commodityService.getPriceHistory(id, timeframe, resolution);
+            return ResponseEntity.ok(history);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Server-sent events with live prices for the given symbols (all when omitted); an
+     * alternative to polling the list endpoint. Errors arrive as a single "error" event.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamPrices(@RequestParam(required = false) List<String> symbols) {
+        try {
+            return ResponseEntity.ok(priceStream.subscribe(symbols));
+        } catch (RuntimeException e) {
+            SseEmitter error = new SseEmitter(0L);
+            try {
+                error.send(SseEmitter.event().name("error").data(new ErrorResponse(e.getMessage())));
+            } catch (IOException ignored) {
+                // Not yet connected; the event is buffered
+            }
+            error.complete();
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
     static class ErrorResponse {
         private String message;
 
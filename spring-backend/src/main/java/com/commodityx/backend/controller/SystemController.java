@@ -0,0 +1,53 @@
+package com.commodityx.backend.controller;
+
+import com.commodityx.backend.alert.AlertEngine;
+import com.commodityx.backend.dto.AlertEngineStats;
+import com.commodityx.backend.dto.PriceStreamStats;
+import com.commodityx.backend.dto.ValuationStats;
+import com.commodityx.backend.dto.WriteBehindStats;
+import com.commodityx.backend.persistence.WriteBehindPipeline;
+import com.commodityx.backend.stream.PriceStream;
+import com.commodityx.backend.valuation.ValuationEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    @Autowired
+    private WriteBehindPipeline writeBehindPipeline;
+
+    @Autowired
+    private PriceStream priceStream;
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private ValuationEngine valuationEngine;
+
+    @GetMapping("/write-behind")
+    public ResponseEntity<WriteBehindStats> getWriteBehindStats() {
+        return ResponseEntity.ok(writeBehindPipeline.getStats());
+    }
+
+    @GetMapping("/price-stream")
+    public ResponseEntity<PriceStreamStats> getPriceStreamStats() {
+        return ResponseEntity.ok(new PriceStreamStats(priceStream.getSubscriberCount(),
+                priceStream.getMergedUpdates(), priceStream.getEvictedSubscribers()));
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<AlertEngineStats> getAlertEngineStats() {
+        return ResponseEntity.ok(alertEngine.getStats());
+    }
+
+    @GetMapping("/valuation")
+    public ResponseEntity<ValuationStats> getValuationStats() {
+        return ResponseEntity.ok(valuationEngine.getStats());
+    }
+}
@@ -1,14 +1,20 @@
 package com.commodityx.backend.controller;
 
+import com.commodityx.backend.dto.OrderPage;
 import com.commodityx.backend.dto.OrderRequest;
-import com.commodityx.backend.model.Order;
-import com.commodityx.backend.model.Portfolio;
+import com.commodityx.backend.dto.OrderUpdate;
+import com.commodityx.backend.dto.OrderView;
+import com.commodityx.backend.dto.PortfolioValuation;
+import com.commodityx.backend.dto.PortfolioView;
 import com.commodityx.backend.service.TradingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,28 +24,107 @@ public class TradingController {
     @Autowired
     private TradingService tradingService;
 
+    /**
+     * With {@code async=true} the order is acknowledged with 202 as soon as it is reserved and
+     * journaled, still PENDING; follow it at the Location header or on {@code /orders/stream}.
+     */
     @PostMapping("/order")
-    public ResponseEntity<?> placeOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<?> placeOrder(@Valid @RequestBody OrderRequest request,
+                                        @RequestParam(defaultValue = "false") boolean async) {
         try {
-            Order order = tradingService.placeOrder(request);
+            OrderView order = tradingService.placeOrder(request, async);
+            if (async) {
+                return ResponseEntity.accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                .path("/api/trading/orders/{id}/status").buildAndExpand(order.getId()).toUri())
+                        .body(order);
+            }
             return ResponseEntity.ok(order);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * The user's orders, newest first, {@code limit} at a time; pass a page's {@code nextCursor}
+     * to get the one after it.
+     */
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getUserOrders() {
-        List<Order> orders = tradingService.getUserOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getUserOrders(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int limit) {
+        try {
+            OrderPage orders = tradingService.getUserOrders(cursor, limit);
+            return ResponseEntity.ok(orders);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/orders/{id}/status")
+    public ResponseEntity<?> getOrderStatus(@PathVariable Long id) {
+        try {
+            OrderUpdate status = tradingService.getOrderStatus(id);
+            return ResponseEntity.ok(status);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Server-sent events with an "order" event each time one of the user's orders changes state
+     * or fills. Updates can be dropped under load; a gap in an order's version means its status
+     * should be fetched again.
+     */
+    @GetMapping("/orders/stream")
+    public ResponseEntity<SseEmitter> streamOrderUpdates() {
+        try {
+            return ResponseEntity.ok(tradingService.streamOrderUpdates());
+        } catch (RuntimeException e) {
+            SseEmitter error = new SseEmitter(0L);
+            try {
+                error.send(SseEmitter.event().name("error").data(new ErrorResponse(e.getMessage())));
+            } catch (IOException ignored) {
+                // Not yet connected; the event is buffered
+            }
+            error.complete();
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @GetMapping("/portfolio")
-    public ResponseEntity<List<Portfolio>> getUserPortfolio() {
-        List<Portfolio> portfolio = tradingService.getUserPortfolio();
+    public ResponseEntity<List<PortfolioView>> getUserPortfolio() {
+        List<PortfolioView> portfolio = tradingService.getUserPortfolio();
         return ResponseEntity.ok(portfolio);
     }
 
+    /**
+     * The user's holdings marked to the latest prices, with market value and unrealized P&L.
+     */
+    @GetMapping("/portfolio/valuation")
+    public ResponseEntity<PortfolioValuation> getPortfolioValuation() {
+        return ResponseEntity.ok(tradingService.getPortfolioValuation());
+    }
+
+    /**
+     * Server-sent events with a "valuation" event holding the user's current valuation, then one
+     * each time it changes.
+     */
+    @GetMapping("/portfolio/stream")
+    public ResponseEntity<SseEmitter> streamPortfolioValuation() {
+        try {
+            return ResponseEntity.ok(tradingService.streamPortfolioValuation());
+        } catch (RuntimeException e) {
+            SseEmitter error = new SseEmitter(0L);
+            try {
+                error.send(SseEmitter.event().name("error").data(new ErrorResponse(e.getMessage())));
+            } catch (IOException ignored) {
+                // Not yet connected; the event is buffered
+            }
+            error.complete();
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @DeleteMapping("/orders/{id}")
     public ResponseEntity<?> cancelOrder(@PathVariable Long id) {
         try {
@@ -1,25 +1,82 @@
 package com.commodityx.backend.controller;
 
-import com.commodityx.backend.model.Transaction;
+import com.commodityx.backend.dto.TransactionPage;
 import com.commodityx.backend.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The user's transactions, newest first, {@code limit} at a time; pass a page's
+     * {@code nextCursor} to get the one after it.
+     */
     @GetMapping
-    public ResponseEntity<List<Transaction>> getUserTransactions() {
-        List<Transaction> transactions = transactionService.getUserTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<?> getUserTransactions(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int limit) {
+        try {
+            TransactionPage transactions = transactionService.getUserTransactions(cursor, limit);
+            return ResponseEntity.ok(transactions);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * The user's whole ledger, oldest first, as a CSV ({@code format=csv}) or NDJSON download.
+     * Errors are answered with the usual JSON message.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "csv") String format) {
+        try {
+            StreamingResponseBody body = transactionService.exportUserTransactions(format);
+            return ResponseEntity.ok()
+                    .contentType("csv".equals(format) ? CSV : MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("transactions." + format).build().toString())
+                    .body(body);
+        } catch (RuntimeException e) {
+            ErrorResponse error = new ErrorResponse(e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+    }
+
+    static class ErrorResponse {
+        private String message;
+
+        public ErrorResponse(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
     }
 }
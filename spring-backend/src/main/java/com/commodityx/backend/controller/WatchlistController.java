@@ -1,7 +1,7 @@
 package com.commodityx.backend.controller;
 
 import com.commodityx.backend.dto.WatchlistRequest;
-import com.commodityx.backend.model.Watchlist;
+import com.commodityx.backend.dto.WatchlistView;
 import com.commodityx.backend.service.WatchlistService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,15 +18,15 @@ public class WatchlistController {
     private WatchlistService watchlistService;
 
     @GetMapping
-    public ResponseEntity<List<Watchlist>> getUserWatchlist() {
-        List<Watchlist> watchlist = watchlistService.getUserWatchlist();
+    public ResponseEntity<List<WatchlistView>> getUserWatchlist() {
+        List<WatchlistView> watchlist = watchlistService.getUserWatchlist();
         return ResponseEntity.ok(watchlist);
     }
 
     @PostMapping
     public ResponseEntity<?> addToWatchlist(@Valid @RequestBody WatchlistRequest request) {
         try {
-            Watchlist watchlist = watchlistService.addToWatchlist(request.getCommodityId());
+            WatchlistView watchlist = watchlistService.addToWatchlist(request.getCommodityId());
             return ResponseEntity.ok(watchlist);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
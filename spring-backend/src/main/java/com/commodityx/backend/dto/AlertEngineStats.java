@@ -0,0 +1,15 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertEngineStats {
+    private long activeAlerts;
+    private long triggeredAlerts;
+    private int pendingDeactivations;
+    private int streams;
+}
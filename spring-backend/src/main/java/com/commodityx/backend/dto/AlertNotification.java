@@ -0,0 +1,21 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertNotification {
+    private Long alertId;
+    private Long commodityId;
+    private String symbol;
+    private String condition;
+    private BigDecimal targetPrice;
+    private BigDecimal price;
+    private LocalDateTime triggeredAt;
+}
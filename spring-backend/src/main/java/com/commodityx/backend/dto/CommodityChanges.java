@@ -0,0 +1,17 @@
+package com.commodityx.backend.dto;
+
+import com.commodityx.backend.model.Commodity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommodityChanges {
+    private long version;
+    private boolean full;
+    private List<Commodity> commodities;
+}
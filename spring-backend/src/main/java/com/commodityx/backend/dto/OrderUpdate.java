@@ -0,0 +1,29 @@
+package com.commodityx.backend.dto;
+
+import com.commodityx.backend.model.OrderState;
+import com.commodityx.backend.model.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The state of one order after a change. {@code version} increases with every update of the
+ * order, so a client can drop an update older than one it already has.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderUpdate {
+    private Long orderId;
+    private Long commodityId;
+    private OrderType orderType;
+    private OrderState state;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal filledQuantity;
+    private Long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.commodityx.backend.dto;
+
+import com.commodityx.backend.model.OrderStatus;
+import com.commodityx.backend.model.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order as listed to its owner, with the commodity flattened to its id, symbol and name.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderView {
+    private Long id;
+    private Long commodityId;
+    private String commoditySymbol;
+    private String commodityName;
+    private OrderType orderType;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal filledQuantity;
+    private OrderStatus status;
+    private LocalDateTime createdAt;
+}
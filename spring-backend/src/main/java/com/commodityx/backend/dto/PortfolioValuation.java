@@ -0,0 +1,18 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioValuation {
+    private List<PositionValuation> positions;
+    private BigDecimal marketValue;
+    private BigDecimal costBasis;
+    private BigDecimal unrealizedPnl;
+}
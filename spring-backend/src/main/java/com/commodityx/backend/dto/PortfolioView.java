@@ -0,0 +1,22 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioView {
+    private Long id;
+    private Long commodityId;
+    private String commoditySymbol;
+    private String commodityName;
+    private BigDecimal quantity;
+    private BigDecimal averagePrice;
+    private BigDecimal currentPrice;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionValuation {
+    private Long commodityId;
+    private String commoditySymbol;
+    private BigDecimal quantity;
+    private BigDecimal averagePrice;
+    private BigDecimal currentPrice;
+    private BigDecimal marketValue;
+    private BigDecimal unrealizedPnl;
+}
@@ -0,0 +1,31 @@
+package com.commodityx.backend.dto;
+
+import com.commodityx.backend.model.AlertCondition;
+import com.commodityx.backend.model.PriceAlert;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAlertView {
+    private Long id;
+    private Long commodityId;
+    private String commoditySymbol;
+    private String commodityName;
+    private BigDecimal targetPrice;
+    private AlertCondition condition;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime triggeredAt;
+
+    public static PriceAlertView of(PriceAlert alert) {
+        return new PriceAlertView(alert.getId(), alert.getCommodity().getId(), alert.getCommodity().getSymbol(),
+                alert.getCommodity().getName(), alert.getTargetPrice(), alert.getCondition(), alert.getIsActive(),
+                alert.getCreatedAt(), alert.getTriggeredAt());
+    }
+}
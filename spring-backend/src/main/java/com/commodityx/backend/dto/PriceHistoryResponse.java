@@ -0,0 +1,18 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistoryResponse {
+    private Long commodityId;
+    private String symbol;
+    private String timeframe;
+    private String resolution;
+    private List<PriceCandle> history;
+}
@@ -0,0 +1,14 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceStreamStats {
+    private int subscribers;
+    private long mergedUpdates;
+    private long evictedSubscribers;
+}
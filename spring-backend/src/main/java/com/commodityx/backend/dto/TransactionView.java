@@ -0,0 +1,22 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A ledger entry as listed to its owner.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionView {
+    private Long id;
+    private String type;
+    private BigDecimal amount;
+    private String description;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValuationStats {
+    private int users;
+    private long positions;
+    private int pendingUpdates;
+    private long repricings;
+    private long revaluedPositions;
+    private double lastRepricingMillis;
+    private double maxRepricingMillis;
+}
@@ -0,0 +1,29 @@
+package com.commodityx.backend.dto;
+
+import com.commodityx.backend.model.Watchlist;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistView {
+    private Long id;
+    private Long commodityId;
+    private String commoditySymbol;
+    private String commodityName;
+    private BigDecimal currentPrice;
+    private BigDecimal priceChange24h;
+    private LocalDateTime addedAt;
+
+    public static WatchlistView of(Watchlist watchlist) {
+        return new WatchlistView(watchlist.getId(), watchlist.getCommodity().getId(),
+                watchlist.getCommodity().getSymbol(), watchlist.getCommodity().getName(),
+                watchlist.getCommodity().getCurrentPrice(), watchlist.getCommodity().getPriceChange24h(),
+                watchlist.getAddedAt());
+    }
+}
@@ -0,0 +1,21 @@
+package com.commodityx.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private long journalSequence;
+    private long flushedSequence;
+    private long flushedEvents;
+    private long flushedBatches;
+    private long failedFlushes;
+    private double lastFlushMillis;
+    private double averageFlushMillis;
+    private double maxFlushMillis;
+}
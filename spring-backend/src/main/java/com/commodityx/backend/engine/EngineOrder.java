@@ -0,0 +1,26 @@
+package com.commodityx.backend.engine;
+
+/**
+ * Pooled, fixed-point resting order. Instances are linked directly into their price
+ * level's FIFO queue so removal is O(1) and matching allocates nothing.
+ */
+final class EngineOrder {
+
+    long orderId;
+    long userId;
+    boolean buy;
+    long remainingLots;
+    PriceLevel level;
+    EngineOrder prev;
+    EngineOrder next;
+
+    void reset() {
+        orderId = 0;
+        userId = 0;
+        buy = false;
+        remainingLots = 0;
+        level = null;
+        prev = null;
+        next = null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.commodityx.backend.engine;
+
+/**
+ * Outcome of submitting an order: the fills it produced and the quantity left resting on the
+ * book. Fills are packed into a single long array as (buy order id, buyer id, sell order id,
+ * seller id, price ticks, quantity lots) so a match costs one allocation regardless of how many
+ * levels it sweeps.
+ */
+public final class MatchResult {
+
+    static final int FILL_WIDTH = 6;
+
+    private final long orderId;
+    private final long remainingLots;
+    private final long[] fills;
+
+    MatchResult(long orderId, long remainingLots, long[] fills) {
+        this.orderId = orderId;
+        this.remainingLots = remainingLots;
+        this.fills = fills;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getRemainingLots() {
+        return remainingLots;
+    }
+
+    public boolean isFullyFilled() {
+        return remainingLots == 0;
+    }
+
+    public int getFillCount() {
+        return fills.length / FILL_WIDTH;
+    }
+
+    public long getBuyOrderId(int fill) {
+        return fills[fill * FILL_WIDTH];
+    }
+
+    public long getBuyerId(int fill) {
+        return fills[fill * FILL_WIDTH + 1];
+    }
+
+    public long getSellOrderId(int fill) {
+        return fills[fill * FILL_WIDTH + 2];
+    }
+
+    public long getSellerId(int fill) {
+        return fills[fill * FILL_WIDTH + 3];
+    }
+
+    public long getPriceTicks(int fill) {
+        return fills[fill * FILL_WIDTH + 4];
+    }
+
+    public long getQuantityLots(int fill) {
+        return fills[fill * FILL_WIDTH + 5];
+    }
+}
@@ -0,0 +1,60 @@
+package com.commodityx.backend.engine;
+
+import com.commodityx.backend.model.OrderType;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Routes orders to per-commodity order books. Each commodity has exactly one matching
+ * thread, so a book is only ever touched by its single writer and needs no locking.
+ * Orders cross into the engine as primitives; see {@link PriceScale} for the conversions.
+ */
+@Component
+public class MatchingEngine {
+
+    private final ConcurrentMap<Long, SymbolMatcher> matchers = new ConcurrentHashMap<>();
+
+    public CompletableFuture<MatchResult> submit(long orderId, long userId, long commodityId,
+                                                 OrderType side, long priceTicks, long quantityLots) {
+        SymbolMatcher matcher = matcherFor(commodityId);
+        return CompletableFuture.supplyAsync(
+                () -> matcher.book.match(orderId, userId, side, priceTicks, quantityLots), matcher.executor);
+    }
+
+    /**
+     * Completes with the lots that were still resting, or zero if the order had already filled.
+     */
+    public CompletableFuture<Long> cancel(long commodityId, long orderId) {
+        SymbolMatcher matcher = matcherFor(commodityId);
+        return CompletableFuture.supplyAsync(() -> matcher.book.cancel(orderId), matcher.executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matchers.values().forEach(matcher -> matcher.executor.shutdown());
+    }
+
+    private SymbolMatcher matcherFor(long commodityId) {
+        return matchers.computeIfAbsent(commodityId, SymbolMatcher::new);
+    }
+
+    private static final class SymbolMatcher {
+        private final OrderBook book;
+        private final ExecutorService executor;
+
+        private SymbolMatcher(long commodityId) {
+            this.book = new OrderBook(commodityId);
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "matching-" + commodityId);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
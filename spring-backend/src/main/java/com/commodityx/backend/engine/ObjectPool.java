@@ -0,0 +1,42 @@
+package com.commodityx.backend.engine;
+
+import java.util.function.Supplier;
+
+/**
+ * Free-list of reusable objects owned by a single matching thread. Objects are created
+ * up front and only allocated again when the pool runs dry.
+ */
+class ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private Object[] free;
+    private int available;
+
+    ObjectPool(Supplier<T> factory, int initialSize) {
+        this.factory = factory;
+        this.free = new Object[initialSize];
+        for (int i = 0; i < initialSize; i++) {
+            free[i] = factory.get();
+        }
+        this.available = initialSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    T acquire() {
+        if (available == 0) {
+            return factory.get();
+        }
+        T object = (T) free[--available];
+        free[available] = null;
+        return object;
+    }
+
+    void release(T object) {
+        if (available == free.length) {
+            Object[] grown = new Object[free.length * 2];
+            System.arraycopy(free, 0, grown, 0, free.length);
+            free = grown;
+        }
+        free[available++] = object;
+    }
+}
@@ -0,0 +1,177 @@
+package com.commodityx.backend.engine;
+
+import com.commodityx.backend.model.OrderType;
+
+import java.util.Arrays;
+
+/**
+ * Limit order book for a single commodity. Price levels are kept best-first and each level
+ * is a FIFO queue, giving price-time priority. Orders and levels come from per-book pools
+ * and are addressed by primitive keys, so steady-state matching does not allocate.
+ * Not thread-safe: every call must come from the commodity's matching thread.
+ */
+public class OrderBook {
+
+    private static final long[] NO_FILLS = new long[0];
+
+    private final long commodityId;
+    private final BookSide bids = new BookSide(true);
+    private final BookSide asks = new BookSide(false);
+    private final LongObjectMap<EngineOrder> restingOrders = new LongObjectMap<>(1024);
+    private final ObjectPool<EngineOrder> orderPool = new ObjectPool<>(EngineOrder::new, 1024);
+    private final ObjectPool<PriceLevel> levelPool = new ObjectPool<>(PriceLevel::new, 256);
+    private long[] fillBuffer = new long[16 * MatchResult.FILL_WIDTH];
+
+    public OrderBook(long commodityId) {
+        this.commodityId = commodityId;
+    }
+
+    public MatchResult match(long orderId, long userId, OrderType side, long priceTicks, long quantityLots) {
+        boolean buy = side == OrderType.BUY;
+        BookSide opposite = buy ? asks : bids;
+        long remaining = quantityLots;
+        int fillCount = 0;
+
+        while (remaining > 0) {
+            PriceLevel level = opposite.best;
+            if (level == null || (buy ? level.priceTicks > priceTicks : level.priceTicks < priceTicks)) {
+                break;
+            }
+
+            EngineOrder resting = level.head;
+            long quantity = Math.min(remaining, resting.remainingLots);
+            remaining -= quantity;
+            resting.remainingLots -= quantity;
+            if (buy) {
+                appendFill(fillCount++, orderId, userId, resting.orderId, resting.userId, level.priceTicks, quantity);
+            } else {
+                appendFill(fillCount++, resting.orderId, resting.userId, orderId, userId, level.priceTicks, quantity);
+            }
+
+            if (resting.remainingLots == 0) {
+                restingOrders.remove(resting.orderId);
+                unlink(opposite, resting);
+            }
+        }
+
+        if (remaining > 0) {
+            rest(buy, orderId, userId, priceTicks, remaining);
+        }
+
+        long[] fills = fillCount == 0 ? NO_FILLS : Arrays.copyOf(fillBuffer, fillCount * MatchResult.FILL_WIDTH);
+        return new MatchResult(orderId, remaining, fills);
+    }
+
+    /**
+     * Removes a resting order and returns its unfilled lots, or zero if it is no longer on the book.
+     */
+    public long cancel(long orderId) {
+        EngineOrder order = restingOrders.remove(orderId);
+        if (order == null) {
+            return 0;
+        }
+        long remaining = order.remainingLots;
+        unlink(order.buy ? bids : asks, order);
+        return remaining;
+    }
+
+    public long getCommodityId() {
+        return commodityId;
+    }
+
+    public int size() {
+        return restingOrders.size();
+    }
+
+    private void rest(boolean buy, long orderId, long userId, long priceTicks, long lots) {
+        EngineOrder order = orderPool.acquire();
+        order.orderId = orderId;
+        order.userId = userId;
+        order.buy = buy;
+        order.remainingLots = lots;
+        (buy ? bids : asks).levelFor(priceTicks).append(order);
+        restingOrders.put(orderId, order);
+    }
+
+    private void unlink(BookSide side, EngineOrder order) {
+        PriceLevel level = order.level;
+        level.remove(order);
+        order.reset();
+        orderPool.release(order);
+        if (level.isEmpty()) {
+            side.removeLevel(level);
+        }
+    }
+
+    private void appendFill(int index, long buyOrderId, long buyerId, long sellOrderId, long sellerId,
+                            long priceTicks, long quantityLots) {
+        int offset = index * MatchResult.FILL_WIDTH;
+        if (offset + MatchResult.FILL_WIDTH > fillBuffer.length) {
+            fillBuffer = Arrays.copyOf(fillBuffer, fillBuffer.length * 2);
+        }
+        fillBuffer[offset] = buyOrderId;
+        fillBuffer[offset + 1] = buyerId;
+        fillBuffer[offset + 2] = sellOrderId;
+        fillBuffer[offset + 3] = sellerId;
+        fillBuffer[offset + 4] = priceTicks;
+        fillBuffer[offset + 5] = quantityLots;
+    }
+
+    /**
+     * One side of the book: a best-first linked list of levels plus a price index. New levels
+     * are inserted by walking from the top, which is short because activity clusters there.
+     */
+    private final class BookSide {
+        private final boolean bid;
+        private final LongObjectMap<PriceLevel> levels = new LongObjectMap<>(256);
+        private PriceLevel best;
+
+        private BookSide(boolean bid) {
+            this.bid = bid;
+        }
+
+        private PriceLevel levelFor(long priceTicks) {
+            PriceLevel level = levels.get(priceTicks);
+            if (level != null) {
+                return level;
+            }
+
+            level = levelPool.acquire();
+            level.priceTicks = priceTicks;
+
+            PriceLevel prev = null;
+            PriceLevel cursor = best;
+            while (cursor != null && (bid ? cursor.priceTicks > priceTicks : cursor.priceTicks < priceTicks)) {
+                prev = cursor;
+                cursor = cursor.next;
+            }
+            level.prev = prev;
+            level.next = cursor;
+            if (prev == null) {
+                best = level;
+            } else {
+                prev.next = level;
+            }
+            if (cursor != null) {
+                cursor.prev = level;
+            }
+
+            levels.put(priceTicks, level);
+            return level;
+        }
+
+        private void removeLevel(PriceLevel level) {
+            if (level.prev == null) {
+                best = level.next;
+            } else {
+                level.prev.next = level.next;
+            }
+            if (level.next != null) {
+                level.next.prev = level.prev;
+            }
+            levels.remove(level.priceTicks);
+            level.reset();
+            levelPool.release(level);
+        }
+    }
+}
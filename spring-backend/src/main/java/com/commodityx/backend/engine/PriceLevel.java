@@ -0,0 +1,50 @@
+package com.commodityx.backend.engine;
+
+/**
+ * All resting orders at one price, oldest first. Levels are themselves linked best-first
+ * within their side of the book.
+ */
+final class PriceLevel {
+
+    long priceTicks;
+    EngineOrder head;
+    EngineOrder tail;
+    PriceLevel prev;
+    PriceLevel next;
+
+    void append(EngineOrder order) {
+        order.level = this;
+        order.prev = tail;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+    }
+
+    void remove(EngineOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    void reset() {
+        priceTicks = 0;
+        head = null;
+        tail = null;
+        prev = null;
+        next = null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.commodityx.backend.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point conversions between the entity model and the trading core. Prices are held as
+ * long ticks of 0.01 and quantities as long lots of 0.0001, matching the scale of the
+ * {@code price} and {@code quantity} columns. Cash is held in micros (0.000001), the scale of
+ * ticks times lots, so a notional is an exact long product. The {@code balance} and
+ * {@code amount} columns keep the same scale, so cash survives a restart without rounding.
+ */
+public final class PriceScale {
+
+    public static final int PRICE_SCALE = 2;
+    public static final int QUANTITY_SCALE = 4;
+    public static final int CASH_SCALE = PRICE_SCALE + QUANTITY_SCALE;
+
+    private PriceScale() {
+    }
+
+    public static long toTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long toLots(BigDecimal quantity) {
+        return quantity.setScale(QUANTITY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromTicks(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+
+    public static BigDecimal fromLots(long lots) {
+        return BigDecimal.valueOf(lots, QUANTITY_SCALE);
+    }
+
+    public static long toMicros(BigDecimal amount) {
+        return amount.setScale(CASH_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMicros(long micros) {
+        return BigDecimal.valueOf(micros, CASH_SCALE);
+    }
+
+    public static long notionalMicros(long priceTicks, long quantityLots) {
+        return Math.multiplyExact(priceTicks, quantityLots);
+    }
+
+    /**
+     * Quantity-weighted average of a holding and a new purchase, rounded half-up to whole ticks.
+     */
+    public static long averagePriceTicks(long heldLots, long heldAverageTicks, long boughtLots, long boughtPriceTicks) {
+        long totalLots = Math.addExact(heldLots, boughtLots);
+        long totalMicros = Math.addExact(notionalMicros(heldAverageTicks, heldLots), notionalMicros(boughtPriceTicks, boughtLots));
+        return Math.floorDiv(Math.addExact(totalMicros, totalLots / 2), totalLots);
+    }
+}
@@ -0,0 +1,36 @@
+package com.commodityx.backend.journal;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A user's cash balance after a reservation, fill or release, in micro-units.
+ */
+@Getter
+public class BalanceChangedEvent extends JournalEvent {
+
+    private final long userId;
+    private final long balanceMicros;
+
+    public BalanceChangedEvent(long timestamp, long userId, long balanceMicros) {
+        super(timestamp);
+        this.userId = userId;
+        this.balanceMicros = balanceMicros;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.BALANCE_CHANGED;
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer buffer) {
+        buffer.putLong(userId);
+        buffer.putLong(balanceMicros);
+    }
+
+    static BalanceChangedEvent read(ByteBuffer buffer, long timestamp) {
+        return new BalanceChangedEvent(timestamp, buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,109 @@
+package com.commodityx.backend.journal;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A state change in the trading core. Events carry the resulting absolute state rather than
+ * deltas wherever possible, so replaying them over the last persisted state is idempotent.
+ * Each event is encoded into a fixed-size binary record.
+ */
+@Getter
+public abstract class JournalEvent {
+
+    public static final int RECORD_SIZE = 128;
+    static final int HEADER_SIZE = 24;
+    private static final byte END_OF_GROUP = 1;
+
+    private long sequence;
+    private final long timestamp;
+    private boolean endOfGroup;
+
+    protected JournalEvent(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public abstract Type getType();
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Marks the last event of a group that was published together. Recovery only applies
+     * complete groups, so a crash can never leave half of one state change behind.
+     */
+    void setEndOfGroup(boolean endOfGroup) {
+        this.endOfGroup = endOfGroup;
+    }
+
+    /**
+     * Writes the payload that follows the common header; at most {@code RECORD_SIZE - HEADER_SIZE - 4} bytes.
+     */
+    protected abstract void writePayload(ByteBuffer buffer);
+
+    /**
+     * Encodes this event at the buffer's position as one record: type, flags, sequence,
+     * timestamp, payload, zero padding and a trailing CRC32 of everything before it.
+     */
+    void encode(ByteBuffer buffer, CRC32 crc) {
+        int start = buffer.position();
+        buffer.putLong(start, 0);
+        buffer.put(start, (byte) getType().ordinal());
+        buffer.put(start + 1, endOfGroup ? END_OF_GROUP : 0);
+        buffer.position(start + 8);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        writePayload(buffer);
+        while (buffer.position() < start + RECORD_SIZE - 4) {
+            buffer.put((byte) 0);
+        }
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Decodes the record at the buffer's position, or returns null if the slot is empty or
+     * fails its checksum (a torn write at the tail of the journal).
+     */
+    static JournalEvent decode(ByteBuffer buffer, CRC32 crc) {
+        int start = buffer.position();
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+        int storedCrc = buffer.getInt(start + RECORD_SIZE - 4);
+        byte type = buffer.get(start);
+        if (type == 0 || storedCrc != (int) crc.getValue()) {
+            return null;
+        }
+
+        buffer.position(start + 8);
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        JournalEvent event = switch (Type.values()[type]) {
+            case ORDER_ACCEPTED -> OrderAcceptedEvent.read(buffer, timestamp);
+            case ORDER_FILLED -> OrderFilledEvent.read(buffer, timestamp);
+            case ORDER_CANCELLED -> OrderCancelledEvent.read(buffer, timestamp);
+            case BALANCE_CHANGED -> BalanceChangedEvent.read(buffer, timestamp);
+            case POSITION_CHANGED -> PositionChangedEvent.read(buffer, timestamp);
+            default -> null;
+        };
+        buffer.position(start + RECORD_SIZE);
+        if (event != null) {
+            event.setSequence(sequence);
+            event.setEndOfGroup((buffer.get(start + 1) & END_OF_GROUP) != 0);
+        }
+        return event;
+    }
+
+    public enum Type {
+        NONE,
+        ORDER_ACCEPTED,
+        ORDER_FILLED,
+        ORDER_CANCELLED,
+        BALANCE_CHANGED,
+        POSITION_CHANGED
+    }
+}
@@ -0,0 +1,131 @@
+package com.commodityx.backend.journal;
+
+import com.commodityx.backend.engine.PriceScale;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline check and repair of a trading journal, run while the application is stopped. It
+ * verifies every segment, reports gaps and torn groups, optionally clears a torn group, and
+ * prints SQL that restores user balances and portfolio rows to their state after the last
+ * journaled event. Use {@code --after} with the checkpoint of a restored database backup to
+ * emit only the rows that changed since then. The application deletes segments once the
+ * checkpoint has passed them, so the journal only reaches back to about the live checkpoint; a
+ * backup older than the first retained sequence cannot be rolled forward from it. Orders and
+ * trade history are left to the application, which replays them on startup.
+ *
+ * <pre>
+ * java -cp backend.jar -Dloader.main=com.commodityx.backend.journal.JournalRecoveryTool \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher data/journal [--after SEQ] [--repair]
+ * </pre>
+ */
+public final class JournalRecoveryTool {
+
+    private JournalRecoveryTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalRecoveryTool <journal-dir> [--after <sequence>] [--repair]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        long after = 0;
+        boolean repair = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--after") && i + 1 < args.length) {
+                after = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--repair")) {
+                repair = true;
+            } else {
+                System.err.println("Unknown argument: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        List<Path> segments = JournalSegments.list(directory);
+        if (segments.isEmpty()) {
+            System.err.println("No journal segments in " + directory.toAbsolutePath());
+            System.exit(1);
+        }
+
+        long first = JournalSegments.firstSequence(segments.get(0));
+        if (first > after + 1) {
+            System.err.printf("Journal starts at sequence %d; events %d..%d were deleted after they were checkpointed, "
+                    + "so rows they last changed are not restored%n", first, after + 1, first - 1);
+        }
+
+        State state = new State(after);
+        for (Path segment : segments) {
+            StandardOpenOption[] options = repair
+                    ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                    : new StandardOpenOption[]{StandardOpenOption.READ};
+            try (FileChannel channel = FileChannel.open(segment, options)) {
+                long firstBefore = state.events;
+                long validEnd = JournalSegments.scan(channel, state::apply);
+                int torn = repair
+                        ? JournalSegments.clearTail(channel, validEnd)
+                        : JournalSegments.countTail(channel, validEnd);
+                System.err.printf("%s: %d events, %d bytes used%s%n", segment.getFileName(),
+                        state.events - firstBefore, validEnd,
+                        torn == 0 ? "" : (repair ? ", cleared " : ", torn group of ") + torn + " records");
+            }
+        }
+        System.err.printf("%d events, last sequence %d, %d gaps%n", state.events, state.lastSequence, state.gaps);
+
+        System.out.printf("-- Balances and holdings after journal sequence %d (events %d..%d)%n",
+                state.lastSequence, after + 1, state.lastSequence);
+        state.balances.forEach((userId, micros) -> System.out.printf(
+                "UPDATE users SET balance = %s, version = version + 1 WHERE id = %d;%n",
+                PriceScale.fromMicros(micros).toPlainString(), userId));
+        state.positions.forEach((userId, holdings) -> holdings.forEach((commodityId, position) -> System.out.printf(
+                "INSERT INTO portfolio (user_id, commodity_id, quantity, average_price, version) "
+                        + "VALUES (%d, %d, %s, %s, 0) ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), "
+                        + "average_price = VALUES(average_price), version = version + 1;%n",
+                userId, commodityId, PriceScale.fromLots(position[0]).toPlainString(),
+                PriceScale.fromTicks(position[1]).toPlainString())));
+    }
+
+    /**
+     * Last balance per user and last position per holding, folded from the journal.
+     */
+    private static final class State {
+        private final long after;
+        private final Map<Long, Long> balances = new TreeMap<>();
+        private final Map<Long, Map<Long, long[]>> positions = new TreeMap<>();
+        private long events;
+        private long lastSequence;
+        private long gaps;
+
+        private State(long after) {
+            this.after = after;
+        }
+
+        private void apply(JournalEvent event) {
+            if (lastSequence != 0 && event.getSequence() != lastSequence + 1) {
+                System.err.printf("Gap in journal: sequence %d follows %d%n", event.getSequence(), lastSequence);
+                gaps++;
+            }
+            lastSequence = event.getSequence();
+            events++;
+            if (event.getSequence() <= after) {
+                return;
+            }
+
+            if (event instanceof BalanceChangedEvent balance) {
+                balances.put(balance.getUserId(), balance.getBalanceMicros());
+            } else if (event instanceof PositionChangedEvent position) {
+                positions.computeIfAbsent(position.getUserId(), id -> new TreeMap<>())
+                        .put(position.getCommodityId(),
+                                new long[]{position.getQuantityLots(), position.getAveragePriceTicks()});
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.commodityx.backend.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * File layout of the trading journal. The journal is a directory of segment files named after
+ * the first sequence number they may contain, each a run of fixed-size records followed by
+ * zeroes. Shared by {@link TradeJournal} and {@link JournalRecoveryTool}.
+ */
+public final class JournalSegments {
+
+    private static final String PREFIX = "trading-";
+    private static final String SUFFIX = ".journal";
+
+    private JournalSegments() {
+    }
+
+    public static String fileName(long firstSequence) {
+        return String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX);
+    }
+
+    public static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Lists the segment files of a journal directory, oldest first.
+     */
+    public static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Delivers every event after {@code afterSequence}, in order, skipping segments that end
+     * before it.
+     */
+    public static void replay(Path directory, long afterSequence, Consumer<JournalEvent> consumer) throws IOException {
+        List<Path> segments = list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                scan(channel, event -> {
+                    if (event.getSequence() > afterSequence) {
+                        consumer.accept(event);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Reads complete groups from the start of a segment and returns the offset just past the
+     * last one. Records of a group whose final record is missing or corrupt are not delivered.
+     */
+    public static long scan(FileChannel channel, Consumer<JournalEvent> consumer) throws IOException {
+        ByteBuffer readBuffer = ByteBuffer.allocate(JournalEvent.RECORD_SIZE * 256);
+        CRC32 crc = new CRC32();
+        List<JournalEvent> group = new ArrayList<>();
+        long position = 0;
+        long groupEnd = 0;
+        while (true) {
+            readBuffer.clear();
+            int read = channel.read(readBuffer, position);
+            if (read < JournalEvent.RECORD_SIZE) {
+                return groupEnd;
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= JournalEvent.RECORD_SIZE) {
+                JournalEvent event = JournalEvent.decode(readBuffer, crc);
+                if (event == null) {
+                    return groupEnd;
+                }
+                position += JournalEvent.RECORD_SIZE;
+                group.add(event);
+                if (event.isEndOfGroup()) {
+                    group.forEach(consumer);
+                    group.clear();
+                    groupEnd = position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the records of a torn group left after {@code validEnd}.
+     */
+    public static int countTail(FileChannel channel, long validEnd) throws IOException {
+        return visitTail(channel, validEnd, false);
+    }
+
+    /**
+     * Zeroes the records of a torn group left after {@code validEnd}, so they can neither be
+     * mistaken for data nor be partially overwritten by the next append. Returns the number of
+     * records cleared.
+     */
+    public static int clearTail(FileChannel channel, long validEnd) throws IOException {
+        return visitTail(channel, validEnd, true);
+    }
+
+    private static int visitTail(FileChannel channel, long validEnd, boolean clear) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(JournalEvent.RECORD_SIZE);
+        ByteBuffer zeroes = ByteBuffer.allocate(JournalEvent.RECORD_SIZE);
+        int count = 0;
+        for (long position = validEnd; position + JournalEvent.RECORD_SIZE <= channel.size();
+             position += JournalEvent.RECORD_SIZE) {
+            record.clear();
+            channel.read(record, position);
+            if (isZero(record.flip())) {
+                break;
+            }
+            if (clear) {
+                channel.write(zeroes.clear(), position);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isZero(ByteBuffer buffer) {
+        while (buffer.remaining() >= Long.BYTES) {
+            if (buffer.getLong() != 0) {
+                return false;
+            }
+        }
+        while (buffer.hasRemaining()) {
+            if (buffer.get() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package com.commodityx.backend.journal;
+
+import com.commodityx.backend.model.OrderType;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A validated order whose funds or holdings have been reserved.
+ */
+@Getter
+public class OrderAcceptedEvent extends JournalEvent {
+
+    private final long orderId;
+    private final long userId;
+    private final long commodityId;
+    private final OrderType side;
+    private final long priceTicks;
+    private final long quantityLots;
+
+    public OrderAcceptedEvent(long timestamp, long orderId, long userId, long commodityId,
+                              OrderType side, long priceTicks, long quantityLots) {
+        super(timestamp);
+        this.orderId = orderId;
+        this.userId = userId;
+        this.commodityId = commodityId;
+        this.side = side;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.ORDER_ACCEPTED;
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer buffer) {
+        buffer.putLong(orderId);
+        buffer.putLong(userId);
+        buffer.putLong(commodityId);
+        buffer.putLong(side.ordinal());
+        buffer.putLong(priceTicks);
+        buffer.putLong(quantityLots);
+    }
+
+    static OrderAcceptedEvent read(ByteBuffer buffer, long timestamp) {
+        return new OrderAcceptedEvent(timestamp, buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                OrderType.values()[(int) buffer.getLong()], buffer.getLong(), buffer.getLong());
+    }
+}
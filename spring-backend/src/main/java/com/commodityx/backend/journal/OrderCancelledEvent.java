@@ -0,0 +1,39 @@
+package com.commodityx.backend.journal;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The unfilled remainder of an order was pulled from the book and its reservation released.
+ */
+@Getter
+public class OrderCancelledEvent extends JournalEvent {
+
+    private final long orderId;
+    private final long userId;
+    private final long remainingLots;
+
+    public OrderCancelledEvent(long timestamp, long orderId, long userId, long remainingLots) {
+        super(timestamp);
+        this.orderId = orderId;
+        this.userId = userId;
+        this.remainingLots = remainingLots;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.ORDER_CANCELLED;
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer buffer) {
+        buffer.putLong(orderId);
+        buffer.putLong(userId);
+        buffer.putLong(remainingLots);
+    }
+
+    static OrderCancelledEvent read(ByteBuffer buffer, long timestamp) {
+        return new OrderCancelledEvent(timestamp, buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,81 @@
+package com.commodityx.backend.journal;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One execution between a buy and a sell order, with each order's cumulative filled lots afterwards.
+ */
+@Getter
+public class OrderFilledEvent extends JournalEvent {
+
+    private static final long BUY_COMPLETE = 1;
+    private static final long SELL_COMPLETE = 2;
+
+    private final long commodityId;
+    private final long buyOrderId;
+    private final long buyerId;
+    private final long buyFilledLots;
+    private final long sellOrderId;
+    private final long sellerId;
+    private final long sellFilledLots;
+    private final long priceTicks;
+    private final long quantityLots;
+    private final boolean buyComplete;
+    private final boolean sellComplete;
+
+    public OrderFilledEvent(long timestamp, long commodityId,
+                            long buyOrderId, long buyerId, long buyFilledLots, boolean buyComplete,
+                            long sellOrderId, long sellerId, long sellFilledLots, boolean sellComplete,
+                            long priceTicks, long quantityLots) {
+        super(timestamp);
+        this.commodityId = commodityId;
+        this.buyOrderId = buyOrderId;
+        this.buyerId = buyerId;
+        this.buyFilledLots = buyFilledLots;
+        this.buyComplete = buyComplete;
+        this.sellOrderId = sellOrderId;
+        this.sellerId = sellerId;
+        this.sellFilledLots = sellFilledLots;
+        this.sellComplete = sellComplete;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.ORDER_FILLED;
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer buffer) {
+        buffer.putLong(commodityId);
+        buffer.putLong(buyOrderId);
+        buffer.putLong(buyerId);
+        buffer.putLong(buyFilledLots);
+        buffer.putLong(sellOrderId);
+        buffer.putLong(sellerId);
+        buffer.putLong(sellFilledLots);
+        buffer.putLong(priceTicks);
+        buffer.putLong(quantityLots);
+        buffer.putLong((buyComplete ? BUY_COMPLETE : 0) | (sellComplete ? SELL_COMPLETE : 0));
+    }
+
+    static OrderFilledEvent read(ByteBuffer buffer, long timestamp) {
+        long commodityId = buffer.getLong();
+        long buyOrderId = buffer.getLong();
+        long buyerId = buffer.getLong();
+        long buyFilledLots = buffer.getLong();
+        long sellOrderId = buffer.getLong();
+        long sellerId = buffer.getLong();
+        long sellFilledLots = buffer.getLong();
+        long priceTicks = buffer.getLong();
+        long quantityLots = buffer.getLong();
+        long flags = buffer.getLong();
+        return new OrderFilledEvent(timestamp, commodityId,
+                buyOrderId, buyerId, buyFilledLots, (flags & BUY_COMPLETE) != 0,
+                sellOrderId, sellerId, sellFilledLots, (flags & SELL_COMPLETE) != 0,
+                priceTicks, quantityLots);
+    }
+}
@@ -0,0 +1,44 @@
+package com.commodityx.backend.journal;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A user's holding in one commodity after a reservation, fill or release.
+ */
+@Getter
+public class PositionChangedEvent extends JournalEvent {
+
+    private final long userId;
+    private final long commodityId;
+    private final long quantityLots;
+    private final long averagePriceTicks;
+
+    public PositionChangedEvent(long timestamp, long userId, long commodityId,
+                                long quantityLots, long averagePriceTicks) {
+        super(timestamp);
+        this.userId = userId;
+        this.commodityId = commodityId;
+        this.quantityLots = quantityLots;
+        this.averagePriceTicks = averagePriceTicks;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.POSITION_CHANGED;
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer buffer) {
+        buffer.putLong(userId);
+        buffer.putLong(commodityId);
+        buffer.putLong(quantityLots);
+        buffer.putLong(averagePriceTicks);
+    }
+
+    static PositionChangedEvent read(ByteBuffer buffer, long timestamp) {
+        return new PositionChangedEvent(timestamp, buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong());
+    }
+}
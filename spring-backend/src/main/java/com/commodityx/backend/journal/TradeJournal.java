@@ -0,0 +1,199 @@
+package com.commodityx.backend.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of trading events, written through memory-mapped segment files of
+ * fixed-size checksummed records. The events of one state change are appended as a group whose
+ * last record carries an end-of-group flag; a torn group at the tail is cleared on open. An
+ * append is a memory copy into the page cache, which survives a process crash; the mapping is
+ * forced to disk on a short fixed interval and whenever a segment fills up. Segments are deleted
+ * once the database holds all of their events, see {@link #release}.
+ * Not thread-safe for appends: callers must serialize them.
+ */
+@Component
+public class TradeJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeJournal.class);
+
+    @Value("${trading.journal.dir:data/journal}")
+    private String directory;
+
+    @Value("${trading.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${trading.journal.fsync-interval-ms:50}")
+    private long fsyncIntervalMs;
+
+    private final CRC32 crc = new CRC32();
+    private Path dir;
+    private FileChannel channel;
+    private volatile MappedByteBuffer segment;
+    private long lastSequence;
+    private volatile boolean dirty;
+    // Last sequence of the oldest closed segment, or Long.MAX_VALUE if only the open one is left
+    private long oldestSegmentEnd = Long.MAX_VALUE;
+    private ScheduledExecutorService fsyncExecutor;
+
+    @PostConstruct
+    public void open() throws IOException {
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        // Resume the newest segment; older ones were forced when they filled up
+        List<Path> segments = JournalSegments.list(dir);
+        for (int i = segments.size() - 1; i >= 0 && lastSequence == 0; i--) {
+            try (FileChannel existing = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                JournalSegments.scan(existing, event -> lastSequence = event.getSequence());
+            }
+        }
+        if (!segments.isEmpty()) {
+            Path newest = segments.get(segments.size() - 1);
+            channel = FileChannel.open(newest, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validEnd = JournalSegments.scan(channel, event -> { });
+            int cleared = JournalSegments.clearTail(channel, validEnd);
+            if (cleared > 0) {
+                logger.warn("Cleared {} records of an incomplete group at the end of {}", cleared, newest.getFileName());
+            }
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize()));
+            segment.position((int) validEnd);
+        }
+        if (segments.size() > 1) {
+            oldestSegmentEnd = JournalSegments.firstSequence(segments.get(1)) - 1;
+        }
+
+        fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fsyncExecutor.scheduleWithFixedDelay(this::sync, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Assigns the next sequence numbers to the events and appends them as one group.
+     */
+    public long append(JournalEvent... events) {
+        if (segment == null || segment.remaining() < events.length * JournalEvent.RECORD_SIZE) {
+            roll();
+        }
+        for (int i = 0; i < events.length; i++) {
+            events[i].setSequence(++lastSequence);
+            events[i].setEndOfGroup(i == events.length - 1);
+            events[i].encode(segment, crc);
+        }
+        dirty = true;
+        return lastSequence;
+    }
+
+    /**
+     * Delivers every event of a complete group with a sequence number above {@code afterSequence}, in order.
+     */
+    public void replay(long afterSequence, Consumer<JournalEvent> consumer) throws IOException {
+        JournalSegments.replay(dir, afterSequence, consumer);
+    }
+
+    /**
+     * Makes sure new events are numbered after {@code sequence}, e.g. when the journal files were
+     * removed but the database has already persisted events up to that point.
+     */
+    public void ensureSequenceAtLeast(long sequence) {
+        lastSequence = Math.max(lastSequence, sequence);
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Deletes the closed segments whose events all have sequence numbers up to {@code sequence},
+     * called as the checkpoint advances so the journal only keeps what the database may still
+     * need. The segment being appended to is always kept. Returns the number of segments deleted.
+     */
+    public synchronized int release(long sequence) throws IOException {
+        if (sequence < oldestSegmentEnd) {
+            return 0;
+        }
+        List<Path> segments = JournalSegments.list(dir);
+        int deleted = 0;
+        oldestSegmentEnd = Long.MAX_VALUE;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long end = JournalSegments.firstSequence(segments.get(i + 1)) - 1;
+            if (end > sequence) {
+                oldestSegmentEnd = end;
+                break;
+            }
+            Files.delete(segments.get(i));
+            logger.info("Deleted journal segment {}, checkpoint is at {}", segments.get(i).getFileName(), sequence);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        fsyncExecutor.shutdown();
+        if (segment != null) {
+            segment.force();
+            channel.close();
+        }
+    }
+
+    private void roll() {
+        try {
+            if (segment != null) {
+                segment.force();
+                channel.close();
+                synchronized (this) {
+                    oldestSegmentEnd = Math.min(oldestSegmentEnd, lastSequence);
+                }
+            }
+            Path file = dir.resolve(JournalSegments.fileName(lastSequence + 1));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize());
+            logger.info("Started journal segment {}", file.getFileName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start a new journal segment", e);
+        }
+    }
+
+    private void sync() {
+        MappedByteBuffer current = segment;
+        if (!dirty || current == null) {
+            return;
+        }
+        dirty = false;
+        try {
+            current.force();
+        } catch (UncheckedIOException e) {
+            dirty = true;
+            logger.error("Failed to sync trading journal: {}", e.getMessage());
+        }
+    }
+
+    private long segmentSize() {
+        long size = (long) segmentSizeMb << 20;
+        return size - size % JournalEvent.RECORD_SIZE;
+    }
+}
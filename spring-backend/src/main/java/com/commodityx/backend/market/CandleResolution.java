@@ -0,0 +1,46 @@
+package com.commodityx.backend.market;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candle widths kept by {@link PriceHistoryStore}, with how many of the most recent candles of
+ * each stay in memory. Older candles are read from the {@code price_history} table.
+ */
+public enum CandleResolution {
+
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1), 1440),
+    FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5), 2016),
+    ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1), 2160),
+    ONE_DAY("1d", TimeUnit.DAYS.toMillis(1), 3660);
+
+    private final String code;
+    private final long millis;
+    private final int capacity;
+
+    CandleResolution(String code, long millis, int capacity) {
+        this.code = code;
+        this.millis = millis;
+        this.capacity = capacity;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    public static CandleResolution fromCode(String code) {
+        for (CandleResolution resolution : values()) {
+            if (resolution.code.equals(code)) {
+                return resolution;
+            }
+        }
+        throw new RuntimeException("Invalid resolution: " + code + " (expected 1m, 5m, 1h or 1d)");
+    }
+}
@@ -0,0 +1,161 @@
+package com.commodityx.backend.market;
+
+/**
+ * The most recent OHLCV candles of one commodity at one resolution, in a fixed-size ring of
+ * primitive columns ordered by start time. A tick updates the newest candle or opens the next
+ * one, so building candles is O(1) per tick and a range read is a binary search plus a copy.
+ * Candles changed since the last {@link #drainChanged} are tracked for persistence.
+ * Not thread-safe.
+ */
+final class CandleSeries {
+
+    static final int START = 0;
+    static final int OPEN = 1;
+    static final int HIGH = 2;
+    static final int LOW = 3;
+    static final int CLOSE = 4;
+    static final int VOLUME = 5;
+    static final int WIDTH = 6;
+
+    private final long resolutionMillis;
+    private final int capacity;
+    private final long[] candles;
+    private long count;
+    private long changedFrom = -1;
+    private long coveredFrom = Long.MIN_VALUE;
+
+    CandleSeries(long resolutionMillis, int capacity) {
+        this.resolutionMillis = resolutionMillis;
+        this.capacity = capacity;
+        this.candles = new long[capacity * WIDTH];
+    }
+
+    void add(long timestampMillis, long priceTicks, long volumeLots) {
+        long start = Math.floorDiv(timestampMillis, resolutionMillis) * resolutionMillis;
+        if (count == 0 || start > value(count - 1, START)) {
+            append(start, priceTicks, priceTicks, priceTicks, priceTicks, volumeLots);
+        } else {
+            int offset = offset(count - 1);
+            candles[offset + HIGH] = Math.max(candles[offset + HIGH], priceTicks);
+            candles[offset + LOW] = Math.min(candles[offset + LOW], priceTicks);
+            candles[offset + CLOSE] = priceTicks;
+            candles[offset + VOLUME] += volumeLots;
+        }
+        if (changedFrom < 0) {
+            changedFrom = count - 1;
+        }
+    }
+
+    /**
+     * Appends a stored candle while warming up from the database, oldest first.
+     */
+    void load(long start, long open, long high, long low, long close, long volume) {
+        append(start, open, high, low, close, volume);
+    }
+
+    /**
+     * Marks that nothing before the oldest loaded candle exists, so every range is answered
+     * from memory until the ring wraps.
+     */
+    void markComplete() {
+        coveredFrom = Long.MIN_VALUE;
+    }
+
+    void markIncomplete() {
+        coveredFrom = count == 0 ? Long.MAX_VALUE : value(Math.max(0, count - capacity), START);
+    }
+
+    /**
+     * Earliest start time from which this ring holds every candle there is.
+     */
+    long getCoveredFrom() {
+        return coveredFrom;
+    }
+
+    /**
+     * Copies the candles starting in {@code [fromMillis, toMillis)} into {@code target}, which
+     * must have room for {@link #countRange} candles, and returns how many were copied.
+     */
+    int copyRange(long fromMillis, long toMillis, long[] target, int targetOffset) {
+        long first = search(fromMillis);
+        long end = search(toMillis);
+        for (long index = first; index < end; index++) {
+            System.arraycopy(candles, offset(index), target, (targetOffset + (int) (index - first)) * WIDTH, WIDTH);
+        }
+        return (int) (end - first);
+    }
+
+    int countRange(long fromMillis, long toMillis) {
+        return (int) (search(toMillis) - search(fromMillis));
+    }
+
+    /**
+     * Hands every candle changed since the previous call to {@code consumer}, oldest first.
+     */
+    void drainChanged(CandleConsumer consumer) {
+        if (changedFrom < 0) {
+            return;
+        }
+        for (long index = Math.max(changedFrom, count - capacity); index < count; index++) {
+            int offset = offset(index);
+            consumer.accept(candles[offset + START], candles[offset + OPEN], candles[offset + HIGH],
+                    candles[offset + LOW], candles[offset + CLOSE], candles[offset + VOLUME]);
+        }
+        changedFrom = -1;
+    }
+
+    /**
+     * Marks the candles from {@code startMillis} on as changed again, e.g. after a failed write.
+     */
+    void markChangedFrom(long startMillis) {
+        long index = search(startMillis);
+        if (index < count && (changedFrom < 0 || index < changedFrom)) {
+            changedFrom = index;
+        }
+    }
+
+    private void append(long start, long open, long high, long low, long close, long volume) {
+        if (count >= capacity) {
+            // The oldest candle is overwritten; older ranges now come from the database
+            coveredFrom = Math.max(coveredFrom, value(count - capacity + 1, START));
+        }
+        int offset = offset(count);
+        candles[offset + START] = start;
+        candles[offset + OPEN] = open;
+        candles[offset + HIGH] = high;
+        candles[offset + LOW] = low;
+        candles[offset + CLOSE] = close;
+        candles[offset + VOLUME] = volume;
+        count++;
+    }
+
+    /**
+     * Index of the first retained candle starting at or after {@code millis}.
+     */
+    private long search(long millis) {
+        long low = Math.max(0, count - capacity);
+        long high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (value(mid, START) < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long value(long index, int field) {
+        return candles[offset(index) + field];
+    }
+
+    private int offset(long index) {
+        return (int) (index % capacity) * WIDTH;
+    }
+
+    @FunctionalInterface
+    interface CandleConsumer {
+        void accept(long start, long open, long high, long low, long close, long volume);
+    }
+}
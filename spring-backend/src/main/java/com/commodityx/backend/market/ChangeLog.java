@@ -0,0 +1,62 @@
+package com.commodityx.backend.market;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The commodity each of the most recent catalog versions changed, in a ring indexed by
+ * version. Written under the catalog's lock and read without one: a slot carries the version
+ * it was written for, checked before and after reading its commodity, so a reader lapped by
+ * the writer sees a mismatch rather than the wrong commodity.
+ */
+final class ChangeLog {
+
+    /**
+     * Recorded for a version that replaced the whole catalog.
+     */
+    static final long ALL = -1;
+
+    private final int capacity;
+    private final AtomicLongArray versions;
+    private final AtomicLongArray commodityIds;
+
+    ChangeLog(int capacity) {
+        this.capacity = capacity;
+        this.versions = new AtomicLongArray(capacity);
+        this.commodityIds = new AtomicLongArray(capacity);
+    }
+
+    void record(long version, long commodityId) {
+        int slot = slot(version);
+        versions.set(slot, 0);
+        commodityIds.set(slot, commodityId);
+        versions.set(slot, version);
+    }
+
+    /**
+     * Adds the commodities changed after {@code since} up to {@code version} to {@code target}.
+     * Returns false if some of those versions are no longer retained or replaced the whole
+     * catalog, in which case the caller needs a full snapshot.
+     */
+    boolean collect(long since, long version, Set<Long> target) {
+        if (version - since > capacity) {
+            return false;
+        }
+        for (long next = since + 1; next <= version; next++) {
+            int slot = slot(next);
+            if (versions.get(slot) != next) {
+                return false;
+            }
+            long commodityId = commodityIds.get(slot);
+            if (versions.get(slot) != next || commodityId == ALL) {
+                return false;
+            }
+            target.add(commodityId);
+        }
+        return true;
+    }
+
+    private int slot(long version) {
+        return (int) Math.floorMod(version, (long) capacity);
+    }
+}
@@ -0,0 +1,182 @@
+package com.commodityx.backend.market;
+
+import com.commodityx.backend.dto.CommodityChanges;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.repository.CommodityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache of the commodity catalog and its live prices. Readers take the current
+ * {@link CommoditySnapshot} from a volatile field and never lock; {@link TickIngestion} swaps
+ * in the next version on every price update. The catalog is loaded from the database at
+ * startup and reloaded when a commodity it does not know is asked for, at most once per miss
+ * reload interval: within it the snapshot is trusted, so lookups of ids or symbols that do not
+ * exist never reach the database. A commodity added to the table therefore shows up within one
+ * interval of first being asked for, or at once through {@link #reload()}. A {@link ChangeLog}
+ * of the latest versions lets pollers fetch only what changed since the version they hold.
+ * Writers serialize on a {@link ReentrantLock} rather than a monitor, because a reload queries
+ * the database while holding it and must not pin a virtual request thread to its carrier.
+ */
+@Component
+public class CommodityCatalog {
+
+    @Autowired
+    private CommodityRepository commodityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${trading.catalog.change-log-size:4096}")
+    private int changeLogSize;
+
+    @Value("${trading.catalog.miss-reload-interval-ms:5000}")
+    private long missReloadIntervalMs;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private ChangeLog changeLog;
+    private volatile CommoditySnapshot snapshot;
+    private volatile long nextMissReload;
+
+    @PostConstruct
+    public void start() {
+        changeLog = new ChangeLog(changeLogSize);
+        reload();
+    }
+
+    public CommoditySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Commodity get(long commodityId) {
+        Commodity commodity = snapshot.get(commodityId);
+        if (commodity == null) {
+            CommoditySnapshot reloaded = reloadOnMiss();
+            commodity = reloaded == null ? null : reloaded.get(commodityId);
+        }
+        return commodity;
+    }
+
+    public Commodity get(String symbol) {
+        Commodity commodity = snapshot.get(symbol);
+        if (commodity == null) {
+            CommoditySnapshot reloaded = reloadOnMiss();
+            commodity = reloaded == null ? null : reloaded.get(symbol);
+        }
+        return commodity;
+    }
+
+    /**
+     * The commodities whose snapshot changed after version {@code since}, as of the current
+     * version; every commodity, flagged as full, when the change log no longer reaches back
+     * that far or the catalog itself changed in between.
+     */
+    public CommodityChanges getChangesSince(long since) {
+        CommoditySnapshot current = snapshot;
+        Set<Long> changed = new LinkedHashSet<>();
+        if (since > current.getVersion() || !changeLog.collect(since, current.getVersion(), changed)) {
+            return new CommodityChanges(current.getVersion(), true, current.getCommodities());
+        }
+        List<Commodity> commodities = new ArrayList<>(changed.size());
+        for (long commodityId : changed) {
+            commodities.add(current.get(commodityId));
+        }
+        return new CommodityChanges(current.getVersion(), false, commodities);
+    }
+
+    /**
+     * Publishes the latest market figures of a commodity as the next snapshot version.
+     */
+    public void onPrice(long commodityId, long timestampMillis, long priceTicks, long change24h,
+                        long highTicks, long lowTicks, long volumeLots) {
+        writeLock.lock();
+        try {
+            CommoditySnapshot current = snapshot;
+            Commodity previous = current.get(commodityId);
+            if (previous == null) {
+                return;
+            }
+            Commodity updated = new Commodity(previous.getId(), previous.getSymbol(), previous.getName(),
+                    PriceScale.fromTicks(priceTicks), BigDecimal.valueOf(change24h, 2), PriceScale.fromTicks(highTicks),
+                    PriceScale.fromTicks(lowTicks), PriceScale.fromLots(volumeLots),
+                    new Timestamp(timestampMillis).toLocalDateTime());
+            changeLog.record(current.getVersion() + 1, commodityId);
+            snapshot = current.with(commodityId, updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the catalog from the database, keeping the live prices of known commodities.
+     */
+    public CommoditySnapshot reload() {
+        writeLock.lock();
+        try {
+            return rebuild(commodityRepository.findAll());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the catalog unless it was reloaded within the miss reload interval, returning
+     * null in that case. Callers racing on the same miss share one reload.
+     */
+    private CommoditySnapshot reloadOnMiss() {
+        if (System.currentTimeMillis() < nextMissReload) {
+            return null;
+        }
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (now < nextMissReload) {
+                return snapshot;
+            }
+            nextMissReload = now + missReloadIntervalMs;
+            return rebuild(commodityRepository.findAll());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CommoditySnapshot rebuild(List<Commodity> stored) {
+        stored.sort(Comparator.comparing(Commodity::getId));
+
+        CommoditySnapshot current = snapshot;
+        Commodity[] commodities = new Commodity[stored.size()];
+        Map<Long, Integer> positionsById = new HashMap<>();
+        Map<String, Integer> positionsBySymbol = new HashMap<>();
+        for (int i = 0; i < commodities.length; i++) {
+            Commodity commodity = stored.get(i);
+            Commodity live = current == null ? null : current.get(commodity.getId());
+            commodities[i] = live != null && live.getSymbol().equals(commodity.getSymbol())
+                    && live.getName().equals(commodity.getName()) ? live : commodity;
+            positionsById.put(commodity.getId(), i);
+            positionsBySymbol.put(commodity.getSymbol(), i);
+        }
+        // Versions start from the startup time in microseconds, so they keep increasing over a restart
+        long version = current == null ? TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+                : current.getVersion() + 1;
+        changeLog.record(version, ChangeLog.ALL);
+        snapshot = new CommoditySnapshot(version, commodities,
+                Map.copyOf(positionsById), Map.copyOf(positionsBySymbol), objectMapper);
+        return snapshot;
+    }
+}
@@ -0,0 +1,96 @@
+package com.commodityx.backend.market;
+
+import com.commodityx.backend.model.Commodity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One immutable version of the commodity catalog with its live prices. A price update
+ * produces the next version by copying the array of references and replacing one entry; the
+ * id and symbol indexes are shared until the set of commodities changes. The JSON of the
+ * full list, plain and gzipped, is encoded once per version, by whichever reader asks first.
+ * The {@link Commodity} instances are shared and must not be modified.
+ */
+public final class CommoditySnapshot {
+
+    private final long version;
+    private final Commodity[] commodities;
+    private final List<Commodity> list;
+    private final Map<Long, Integer> positionsById;
+    private final Map<String, Integer> positionsBySymbol;
+    private final ObjectMapper objectMapper;
+    private volatile byte[] json;
+    private volatile byte[] gzippedJson;
+
+    CommoditySnapshot(long version, Commodity[] commodities, Map<Long, Integer> positionsById,
+                      Map<String, Integer> positionsBySymbol, ObjectMapper objectMapper) {
+        this.version = version;
+        this.commodities = commodities;
+        this.list = Collections.unmodifiableList(Arrays.asList(commodities));
+        this.positionsById = positionsById;
+        this.positionsBySymbol = positionsBySymbol;
+        this.objectMapper = objectMapper;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Commodity> getCommodities() {
+        return list;
+    }
+
+    public Commodity get(long commodityId) {
+        Integer position = positionsById.get(commodityId);
+        return position == null ? null : commodities[position];
+    }
+
+    public Commodity get(String symbol) {
+        Integer position = positionsBySymbol.get(symbol);
+        return position == null ? null : commodities[position];
+    }
+
+    public byte[] getJson() {
+        byte[] encoded = json;
+        if (encoded == null) {
+            try {
+                // Concurrent first readers may both encode; they produce the same bytes
+                encoded = objectMapper.writeValueAsBytes(list);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to encode commodity snapshot", e);
+            }
+            json = encoded;
+        }
+        return encoded;
+    }
+
+    public byte[] getGzippedJson() {
+        byte[] encoded = gzippedJson;
+        if (encoded == null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(getJson());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            encoded = buffer.toByteArray();
+            gzippedJson = encoded;
+        }
+        return encoded;
+    }
+
+    CommoditySnapshot with(long commodityId, Commodity commodity) {
+        Commodity[] next = commodities.clone();
+        next[positionsById.get(commodityId)] = commodity;
+        return new CommoditySnapshot(version + 1, next, positionsById, positionsBySymbol, objectMapper);
+    }
+}
@@ -0,0 +1,206 @@
+package com.commodityx.backend.market;
+
+import com.commodityx.backend.dto.PriceCandle;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.model.PriceHistory;
+import com.commodityx.backend.repository.CommodityRepository;
+import com.commodityx.backend.repository.PriceHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OHLCV candles per commodity at every {@link CandleResolution}, built incrementally from the
+ * ticks seen by {@link TickIngestion}. Recent candles live in per-resolution ring buffers that
+ * answer chart requests from memory; changed candles are upserted into {@code price_history}
+ * on a fixed cadence, and ranges older than a ring reaches back are read from there by index.
+ */
+@Component
+public class PriceHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryStore.class);
+    private static final CandleResolution[] RESOLUTIONS = CandleResolution.values();
+    private static final String LOAD_RECENT = "SELECT timestamp, open_price, high_price, low_price, price, volume "
+            + "FROM price_history WHERE commodity_id = ? AND resolution = ? ORDER BY timestamp DESC LIMIT ?";
+    private static final String UPSERT_CANDLE = "INSERT INTO price_history (commodity_id, resolution, timestamp, "
+            + "open_price, high_price, low_price, price, volume) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "high_price = VALUES(high_price), low_price = VALUES(low_price), price = VALUES(price), "
+            + "volume = VALUES(volume)";
+
+    @Autowired
+    private CommodityRepository commodityRepository;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${trading.history.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    private final ConcurrentMap<Long, CommodityHistory> histories = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        for (Commodity commodity : commodityRepository.findAll()) {
+            histories.put(commodity.getId(), load(commodity.getId()));
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    public void record(long commodityId, long timestampMillis, long priceTicks, long volumeLots) {
+        CommodityHistory history = histories.computeIfAbsent(commodityId, this::load);
+        synchronized (history) {
+            for (CandleSeries series : history.series) {
+                series.add(timestampMillis, priceTicks, volumeLots);
+            }
+        }
+    }
+
+    /**
+     * Candles starting in {@code [fromMillis, toMillis)}, oldest first. The part a ring still
+     * covers is copied from memory; only an older remainder goes to the database.
+     */
+    public List<PriceCandle> getCandles(long commodityId, CandleResolution resolution, long fromMillis, long toMillis) {
+        CommodityHistory history = histories.get(commodityId);
+        long coveredFrom = Long.MAX_VALUE;
+        long[] recent = new long[0];
+        int recentCount = 0;
+        if (history != null) {
+            synchronized (history) {
+                CandleSeries series = history.series[resolution.ordinal()];
+                coveredFrom = series.getCoveredFrom();
+                long memoryFrom = Math.max(fromMillis, coveredFrom);
+                recent = new long[series.countRange(memoryFrom, toMillis) * CandleSeries.WIDTH];
+                recentCount = series.copyRange(memoryFrom, toMillis, recent, 0);
+            }
+        }
+
+        List<PriceCandle> candles = new ArrayList<>(recentCount);
+        if (fromMillis < coveredFrom) {
+            List<PriceHistory> stored = priceHistoryRepository
+                    .findByCommodityIdAndResolutionAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(
+                            commodityId, resolution.getCode(), new Timestamp(fromMillis).toLocalDateTime(),
+                            new Timestamp(Math.min(toMillis, coveredFrom)).toLocalDateTime());
+            for (PriceHistory row : stored) {
+                candles.add(new PriceCandle(Timestamp.valueOf(row.getTimestamp()).getTime(), row.getOpenPrice(),
+                        row.getHighPrice(), row.getLowPrice(), row.getPrice(), row.getVolume()));
+            }
+        }
+        for (int i = 0; i < recentCount; i++) {
+            int offset = i * CandleSeries.WIDTH;
+            candles.add(new PriceCandle(recent[offset + CandleSeries.START],
+                    PriceScale.fromTicks(recent[offset + CandleSeries.OPEN]),
+                    PriceScale.fromTicks(recent[offset + CandleSeries.HIGH]),
+                    PriceScale.fromTicks(recent[offset + CandleSeries.LOW]),
+                    PriceScale.fromTicks(recent[offset + CandleSeries.CLOSE]),
+                    PriceScale.fromLots(recent[offset + CandleSeries.VOLUME])));
+        }
+        return candles;
+    }
+
+    private CommodityHistory load(long commodityId) {
+        CommodityHistory history = new CommodityHistory();
+        for (CandleResolution resolution : RESOLUTIONS) {
+            int capacity = resolution.getCapacity();
+            List<long[]> rows = jdbcTemplate.query(LOAD_RECENT, (rs, rowNum) -> new long[]{
+                    rs.getTimestamp(1).getTime(), PriceScale.toTicks(rs.getBigDecimal(2)),
+                    PriceScale.toTicks(rs.getBigDecimal(3)), PriceScale.toTicks(rs.getBigDecimal(4)),
+                    PriceScale.toTicks(rs.getBigDecimal(5)),
+                    rs.getBigDecimal(6) == null ? 0 : PriceScale.toLots(rs.getBigDecimal(6))},
+                    commodityId, resolution.getCode(), capacity + 1);
+
+            CandleSeries series = history.series[resolution.ordinal()];
+            for (int i = Math.min(rows.size(), capacity) - 1; i >= 0; i--) {
+                long[] row = rows.get(i);
+                series.load(row[0], row[1], row[2], row[3], row[4], row[5]);
+            }
+            if (rows.size() > capacity) {
+                series.markIncomplete();
+            } else {
+                series.markComplete();
+            }
+        }
+        return history;
+    }
+
+    private void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        Map<CandleSeries, Long> firstStarts = new HashMap<>();
+        for (Map.Entry<Long, CommodityHistory> entry : histories.entrySet()) {
+            long commodityId = entry.getKey();
+            CommodityHistory history = entry.getValue();
+            synchronized (history) {
+                for (CandleResolution resolution : RESOLUTIONS) {
+                    CandleSeries series = history.series[resolution.ordinal()];
+                    series.drainChanged((start, open, high, low, close, volume) -> {
+                        firstStarts.putIfAbsent(series, start);
+                        rows.add(new Object[]{commodityId, resolution.getCode(), new Timestamp(start),
+                                PriceScale.fromTicks(open), PriceScale.fromTicks(high), PriceScale.fromTicks(low),
+                                PriceScale.fromTicks(close), PriceScale.fromLots(volume)});
+                    });
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_CANDLE, rows);
+        } catch (RuntimeException e) {
+            for (Map.Entry<Long, CommodityHistory> entry : histories.entrySet()) {
+                synchronized (entry.getValue()) {
+                    for (CandleSeries series : entry.getValue().series) {
+                        Long start = firstStarts.get(series);
+                        if (start != null) {
+                            series.markChangedFrom(start);
+                        }
+                    }
+                }
+            }
+            logger.error("Failed to write {} price history candles: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private static final class CommodityHistory {
+        private final CandleSeries[] series = new CandleSeries[RESOLUTIONS.length];
+
+        private CommodityHistory() {
+            for (CandleResolution resolution : RESOLUTIONS) {
+                series[resolution.ordinal()] = new CandleSeries(resolution.getMillis(), resolution.getCapacity());
+            }
+        }
+    }
+}
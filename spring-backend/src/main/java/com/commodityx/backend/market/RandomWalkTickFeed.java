@@ -0,0 +1,74 @@
+package com.commodityx.backend.market;
+
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.repository.CommodityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic prices for development and load tests: every interval each commodity moves by a
+ * normally distributed step of {@code volatility-bps} basis points and trades a random volume.
+ * A fixed seed makes runs repeatable.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.ticks.source", havingValue = "random-walk")
+public class RandomWalkTickFeed implements TickFeed {
+
+    @Autowired
+    private CommodityRepository commodityRepository;
+
+    @Value("${trading.ticks.random-walk.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${trading.ticks.random-walk.volatility-bps:10}")
+    private double volatilityBps;
+
+    @Value("${trading.ticks.random-walk.seed:0}")
+    private long seed;
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void start(TickListener listener) {
+        List<Commodity> commodities = commodityRepository.findAll();
+        String[] symbols = new String[commodities.size()];
+        long[] prices = new long[commodities.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = commodities.get(i).getSymbol();
+            prices[i] = PriceScale.toTicks(commodities.get(i).getCurrentPrice());
+        }
+        long lotsPerUnit = PriceScale.toLots(BigDecimal.ONE);
+        Random random = seed == 0 ? new Random() : new Random(seed);
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tick-random-walk");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < symbols.length; i++) {
+                long step = Math.round(prices[i] * volatilityBps / 10_000 * random.nextGaussian());
+                prices[i] = Math.max(1, prices[i] + step);
+                listener.onTick(symbols[i], now, prices[i], (1 + random.nextInt(100)) * lotsPerUnit);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.commodityx.backend.market;
+
+import com.commodityx.backend.engine.PriceScale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Replays recorded ticks from a CSV file of {@code timestamp,symbol,price[,volume]} lines, where
+ * the timestamp is epoch milliseconds or an ISO-8601 instant. Blank lines, {@code #} comments and
+ * a header line are skipped. Ticks keep their original spacing but are shifted to start now, and
+ * {@code speed} compresses the wall-clock delay between them; 0 replays as fast as possible.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.ticks.source", havingValue = "replay")
+public class ReplayTickFeed implements TickFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayTickFeed.class);
+
+    @Value("${trading.ticks.replay.file}")
+    private String file;
+
+    @Value("${trading.ticks.replay.speed:1.0}")
+    private double speed;
+
+    private Thread thread;
+
+    @Override
+    public void start(TickListener listener) {
+        thread = new Thread(() -> replay(listener), "tick-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void replay(TickListener listener) {
+        long replayed = 0;
+        long firstTimestamp = Long.MIN_VALUE;
+        long startedAt = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.toLowerCase().startsWith("timestamp")) {
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                long timestamp;
+                long priceTicks;
+                long volumeLots;
+                try {
+                    timestamp = parseTimestamp(fields[0].trim());
+                    priceTicks = PriceScale.toTicks(new BigDecimal(fields[2].trim()));
+                    volumeLots = fields.length > 3 ? PriceScale.toLots(new BigDecimal(fields[3].trim())) : 0;
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping malformed tick at {}:{}: {}", file, lineNumber, line);
+                    continue;
+                }
+
+                if (firstTimestamp == Long.MIN_VALUE) {
+                    firstTimestamp = timestamp;
+                }
+                long offset = timestamp - firstTimestamp;
+                if (speed > 0) {
+                    long delay = startedAt + (long) (offset / speed) - System.currentTimeMillis();
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                }
+                listener.onTick(fields[1].trim(), startedAt + offset, priceTicks, volumeLots);
+                replayed++;
+            }
+            logger.info("Replayed {} ticks from {}", replayed, file);
+        } catch (IOException e) {
+            logger.error("Tick replay from {} failed: {}", file, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long parseTimestamp(String value) {
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(value);
+        }
+        return Instant.parse(value).toEpochMilli();
+    }
+}
@@ -0,0 +1,211 @@
+package com.commodityx.backend.market;
+
+import java.util.Arrays;
+
+/**
+ * Trailing-window statistics of one commodity: last price, high, low, volume and the change
+ * against the oldest price still inside the window. Ticks are folded into fixed-width time
+ * buckets held in a ring; monotonic queues of bucket numbers keep the high and the low at
+ * their heads and the volume is a running sum, so a tick costs amortized O(1) and the memory
+ * is fixed by the bucket count. Ticks older than the newest bucket count towards it.
+ * Not thread-safe.
+ */
+final class RollingWindow {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long[] bucketIds;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] volume;
+    private final MonotonicQueue highs;
+    private final MonotonicQueue lows;
+    private long newest = EMPTY;
+    private long oldest = EMPTY;
+    private long volumeSum;
+    private long lastPrice;
+
+    RollingWindow(long windowMillis, long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = (int) Math.max(1, windowMillis / bucketMillis);
+        this.bucketIds = new long[bucketCount];
+        this.open = new long[bucketCount];
+        this.high = new long[bucketCount];
+        this.low = new long[bucketCount];
+        this.volume = new long[bucketCount];
+        this.highs = new MonotonicQueue(bucketCount);
+        this.lows = new MonotonicQueue(bucketCount);
+        Arrays.fill(bucketIds, EMPTY);
+    }
+
+    void add(long timestampMillis, long priceTicks, long volumeLots) {
+        long bucket = Math.floorDiv(timestampMillis, bucketMillis);
+        if (newest == EMPTY || bucket > newest) {
+            advance(bucket);
+        }
+        bucket = newest;
+
+        int slot = slot(bucket);
+        if (bucketIds[slot] != bucket) {
+            bucketIds[slot] = bucket;
+            open[slot] = priceTicks;
+            high[slot] = priceTicks;
+            low[slot] = priceTicks;
+            volume[slot] = 0;
+            if (oldest == EMPTY) {
+                oldest = bucket;
+            }
+        } else {
+            high[slot] = Math.max(high[slot], priceTicks);
+            low[slot] = Math.min(low[slot], priceTicks);
+        }
+        volume[slot] += volumeLots;
+        volumeSum += volumeLots;
+        lastPrice = priceTicks;
+
+        // The newest bucket dominates every older one it matches or beats
+        highs.removeLast(bucket);
+        while (!highs.isEmpty() && high[slot(highs.last())] <= high[slot]) {
+            highs.removeLast();
+        }
+        highs.addLast(bucket);
+        lows.removeLast(bucket);
+        while (!lows.isEmpty() && low[slot(lows.last())] >= low[slot]) {
+            lows.removeLast();
+        }
+        lows.addLast(bucket);
+    }
+
+    boolean isEmpty() {
+        return oldest == EMPTY;
+    }
+
+    long getLastPrice() {
+        return lastPrice;
+    }
+
+    long getHigh() {
+        return high[slot(highs.first())];
+    }
+
+    long getLow() {
+        return low[slot(lows.first())];
+    }
+
+    long getVolume() {
+        return volumeSum;
+    }
+
+    long getReferencePrice() {
+        return open[slot(oldest)];
+    }
+
+    /**
+     * Change of the last price against the reference price in hundredths of a percent, rounded half-up.
+     */
+    long getChange() {
+        long reference = getReferencePrice();
+        if (reference == 0) {
+            return 0;
+        }
+        long scaled = Math.multiplyExact(lastPrice - reference, 10_000L);
+        long change = Math.floorDiv(Math.abs(scaled) + reference / 2, reference);
+        return scaled < 0 ? -change : change;
+    }
+
+    private void advance(long bucket) {
+        long firstLive = bucket - bucketCount + 1;
+        if (newest != EMPTY && firstLive > newest) {
+            clear();
+        } else if (oldest != EMPTY) {
+            // Expired buckets leave the running sum; empty ones are skipped over once
+            for (long expired = oldest; expired < firstLive; expired++) {
+                int slot = slot(expired);
+                if (bucketIds[slot] == expired) {
+                    volumeSum -= volume[slot];
+                    bucketIds[slot] = EMPTY;
+                }
+            }
+            while (!highs.isEmpty() && highs.first() < firstLive) {
+                highs.removeFirst();
+            }
+            while (!lows.isEmpty() && lows.first() < firstLive) {
+                lows.removeFirst();
+            }
+            if (oldest < firstLive) {
+                oldest = firstLive;
+                while (oldest <= newest && bucketIds[slot(oldest)] != oldest) {
+                    oldest++;
+                }
+                if (oldest > newest) {
+                    oldest = EMPTY;
+                }
+            }
+        }
+        newest = bucket;
+    }
+
+    private void clear() {
+        Arrays.fill(bucketIds, EMPTY);
+        highs.clear();
+        lows.clear();
+        oldest = EMPTY;
+        volumeSum = 0;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketCount);
+    }
+
+    /**
+     * Ring-backed deque of bucket numbers.
+     */
+    private static final class MonotonicQueue {
+        private final long[] buckets;
+        private int head;
+        private int size;
+
+        private MonotonicQueue(int capacity) {
+            this.buckets = new long[capacity];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private long first() {
+            return buckets[head];
+        }
+
+        private long last() {
+            return buckets[(head + size - 1) % buckets.length];
+        }
+
+        private void addLast(long bucket) {
+            buckets[(head + size++) % buckets.length] = bucket;
+        }
+
+        private void removeFirst() {
+            head = (head + 1) % buckets.length;
+            size--;
+        }
+
+        private void removeLast() {
+            size--;
+        }
+
+        private void removeLast(long bucket) {
+            if (size > 0 && last() == bucket) {
+                size--;
+            }
+        }
+
+        private void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+}
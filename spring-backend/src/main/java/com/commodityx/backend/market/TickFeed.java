@@ -0,0 +1,13 @@
+package com.commodityx.backend.market;
+
+/**
+ * A source of market prices. Feeds are Spring beans selected with
+ * {@code trading.ticks.source}; {@link TickIngestion} starts every feed it finds once its own
+ * state is loaded and stops them on shutdown.
+ */
+public interface TickFeed {
+
+    void start(TickListener listener);
+
+    void stop();
+}
@@ -0,0 +1,212 @@
+package com.commodityx.backend.market;
+
+import com.commodityx.backend.alert.AlertEngine;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.stream.PriceStream;
+import com.commodityx.backend.valuation.ValuationEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the live market snapshot of every commodity. Ticks from the configured feeds and
+ * trades from the matching engine update a per-commodity {@link RollingWindow}, extend the
+ * candles of the {@link PriceHistoryStore}, fire price alerts, revalue holdings and go straight
+ * to the {@link PriceStream} and the {@link CommodityCatalog}; the {@code commodities} table only
+ * receives the latest snapshot of the commodities that changed, once per flush interval.
+ */
+@Component
+public class TickIngestion implements TickListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickIngestion.class);
+    private static final long WINDOW_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final String UPDATE_SNAPSHOT = "UPDATE commodities SET current_price = ?, price_change_24h = ?, "
+            + "high_24h = ?, low_24h = ?, volume_24h = ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PriceStream priceStream;
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private CommodityCatalog commodityCatalog;
+
+    @Autowired
+    private ValuationEngine valuationEngine;
+
+    @Autowired
+    private ObjectProvider<TickFeed> feeds;
+
+    @Value("${trading.ticks.window-bucket-ms:10000}")
+    private long bucketMillis;
+
+    @Value("${trading.ticks.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    private final ConcurrentMap<Long, MarketState> byId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MarketState> bySymbol = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        for (Commodity commodity : commodityCatalog.getSnapshot().getCommodities()) {
+            register(commodity);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tick-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        feeds.orderedStream().forEach(feed -> {
+            feed.start(this);
+            logger.info("Started tick feed {}", feed.getClass().getSimpleName());
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        feeds.orderedStream().forEach(TickFeed::stop);
+        flusher.shutdown();
+        flush();
+    }
+
+    @Override
+    public void onTick(String symbol, long timestampMillis, long priceTicks, long volumeLots) {
+        MarketState state = bySymbol.get(symbol);
+        if (state == null) {
+            Commodity commodity = commodityCatalog.get(symbol);
+            if (commodity == null) {
+                return;
+            }
+            state = register(commodity);
+        }
+        apply(state, timestampMillis, priceTicks, volumeLots);
+    }
+
+    /**
+     * Records an execution on the exchange's own order book as a tick.
+     */
+    public void onTrade(long commodityId, long priceTicks, long quantityLots) {
+        MarketState state = byId.get(commodityId);
+        if (state == null) {
+            Commodity commodity = commodityCatalog.get(commodityId);
+            if (commodity == null) {
+                return;
+            }
+            state = register(commodity);
+        }
+        apply(state, System.currentTimeMillis(), priceTicks, quantityLots);
+    }
+
+    private void apply(MarketState state, long timestampMillis, long priceTicks, long volumeLots) {
+        synchronized (state) {
+            RollingWindow window = state.window;
+            window.add(timestampMillis, priceTicks, volumeLots);
+            state.dirty = true;
+            priceHistoryStore.record(state.commodityId, timestampMillis, priceTicks, volumeLots);
+            priceStream.publish(state.commodityId, window.getLastPrice(), window.getChange(),
+                    window.getHigh(), window.getLow(), window.getVolume());
+            commodityCatalog.onPrice(state.commodityId, timestampMillis, window.getLastPrice(), window.getChange(),
+                    window.getHigh(), window.getLow(), window.getVolume());
+            valuationEngine.onPrice(state.commodityId, window.getLastPrice());
+        }
+        alertEngine.onPrice(state.commodityId, priceTicks);
+    }
+
+    private void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        List<MarketState> flushed = new ArrayList<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (MarketState state : byId.values()) {
+            synchronized (state) {
+                if (!state.dirty) {
+                    continue;
+                }
+                state.dirty = false;
+                RollingWindow window = state.window;
+                rows.add(new Object[]{PriceScale.fromTicks(window.getLastPrice()),
+                        BigDecimal.valueOf(window.getChange(), 2), PriceScale.fromTicks(window.getHigh()),
+                        PriceScale.fromTicks(window.getLow()), PriceScale.fromLots(window.getVolume()),
+                        now, state.commodityId});
+            }
+            flushed.add(state);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT, rows);
+        } catch (RuntimeException e) {
+            // Retried with whatever is newest at the next flush
+            flushed.forEach(state -> state.dirty = true);
+            logger.error("Failed to flush {} commodity snapshots: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private MarketState register(Commodity commodity) {
+        MarketState state = byId.computeIfAbsent(commodity.getId(), id -> new MarketState(commodity, bucketMillis));
+        bySymbol.putIfAbsent(commodity.getSymbol(), state);
+        return state;
+    }
+
+    private static final class MarketState {
+        private final long commodityId;
+        private final RollingWindow window;
+        private boolean dirty;
+
+        private MarketState(Commodity commodity, long bucketMillis) {
+            this.commodityId = commodity.getId();
+            this.window = new RollingWindow(WINDOW_MILLIS, bucketMillis);
+            if (commodity.getCurrentPrice() != null) {
+                seed(commodity);
+            }
+        }
+
+        /**
+         * Carries the stored 24h figures over a restart: they count as one bucket at startup,
+         * opening at the price implied by the stored change, until it ages out of the window.
+         */
+        private void seed(Commodity commodity) {
+            long now = System.currentTimeMillis();
+            long price = PriceScale.toTicks(commodity.getCurrentPrice());
+            long change = commodity.getPriceChange24h() == null ? 0 : PriceScale.toTicks(commodity.getPriceChange24h());
+            long reference = change <= -10_000 ? price : Math.round(price * 10_000.0 / (10_000 + change));
+            long volume = commodity.getVolume24h() == null ? 0 : PriceScale.toLots(commodity.getVolume24h());
+            window.add(now, reference, volume);
+            if (commodity.getHigh24h() != null) {
+                window.add(now, PriceScale.toTicks(commodity.getHigh24h()), 0);
+            }
+            if (commodity.getLow24h() != null) {
+                window.add(now, PriceScale.toTicks(commodity.getLow24h()), 0);
+            }
+            window.add(now, price, 0);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.commodityx.backend.market;
+
+/**
+ * Receives price ticks from a {@link TickFeed}. Prices are in ticks and volumes in lots, see
+ * {@link com.commodityx.backend.engine.PriceScale}.
+ */
+@FunctionalInterface
+public interface TickListener {
+
+    void onTick(String symbol, long timestampMillis, long priceTicks, long volumeLots);
+}
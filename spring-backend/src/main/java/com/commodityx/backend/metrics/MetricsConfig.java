@@ -0,0 +1,25 @@
+package com.commodityx.backend.metrics;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps the number of series bounded. Trading meters may be tagged with a commodity, but only
+ * the first {@code trading.metrics.max-commodity-tags} distinct commodities get series; meters
+ * for any beyond that are dropped. No meter is ever tagged with a user.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String COMMODITY_TAG = "commodity";
+
+    @Value("${trading.metrics.max-commodity-tags:200}")
+    private int maxCommodityTags;
+
+    @Bean
+    public MeterFilter commodityTagLimit() {
+        return MeterFilter.maximumAllowableTags("trading.", COMMODITY_TAG, maxCommodityTags, MeterFilter.deny());
+    }
+}
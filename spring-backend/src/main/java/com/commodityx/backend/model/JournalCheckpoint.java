@@ -0,0 +1,21 @@
+package com.commodityx.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "journal_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private Long sequence;
+}
@@ -0,0 +1,14 @@
+package com.commodityx.backend.model;
+
+/**
+ * Where an order is in its lifecycle, as reported to its owner. Unlike {@link OrderStatus},
+ * which is what the database stores, this tells an order that was acknowledged but not yet
+ * matched ({@code PENDING}) from one resting on the book ({@code ACCEPTED}).
+ */
+public enum OrderState {
+    PENDING,
+    ACCEPTED,
+    PARTIALLY_FILLED,
+    FILLED,
+    CANCELLED
+}
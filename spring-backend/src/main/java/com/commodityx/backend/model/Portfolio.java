@@ -1,16 +1,20 @@
 package com.commodityx.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "portfolio")
+@Table(name = "portfolio", uniqueConstraints = @UniqueConstraint(name = "unique_user_commodity", columnNames = {"user_id", "commodity_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,11 +24,16 @@ public class Portfolio {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "commodity_id", nullable = false)
     private Commodity commodity;
 
@@ -34,6 +43,11 @@ public class Portfolio {
     @Column(name = "average_price", nullable = false, precision = 15, scale = 2)
     private BigDecimal averagePrice = BigDecimal.ZERO;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
@@ -0,0 +1,51 @@
+package com.commodityx.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "price_history", uniqueConstraints = @UniqueConstraint(name = "unique_commodity_resolution_time",
+        columnNames = {"commodity_id", "resolution", "timestamp"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "commodity_id", nullable = false)
+    private Commodity commodity;
+
+    @Column(nullable = false, length = 3)
+    private String resolution;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "open_price", nullable = false, precision = 15, scale = 2)
+    private BigDecimal openPrice;
+
+    @Column(name = "high_price", nullable = false, precision = 15, scale = 2)
+    private BigDecimal highPrice;
+
+    @Column(name = "low_price", nullable = false, precision = 15, scale = 2)
+    private BigDecimal lowPrice;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal price;
+
+    @Column(precision = 20, scale = 4)
+    private BigDecimal volume;
+}
@@ -0,0 +1,52 @@
+package com.commodityx.backend.order;
+
+import com.commodityx.backend.dto.OrderUpdate;
+import com.commodityx.backend.stream.UserStreamHub;
+import com.commodityx.backend.stream.UserStreams;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes order updates to their owners over SSE. Updates are published under account locks,
+ * so they are only queued on the owner's streams, and {@link UserStreamHub} delivers them in
+ * the order they were published. When a stream's queue is full an update is dropped and the
+ * client has to catch up from the status endpoint, using the version to spot the gap.
+ */
+@Component
+public class OrderNotifier {
+
+    @Autowired
+    private UserStreamHub userStreamHub;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.orders.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${trading.orders.stream-queue-capacity:1024}")
+    private int queueCapacity;
+
+    private UserStreams streams;
+
+    @PostConstruct
+    public void start() {
+        streams = userStreamHub.topic("order", maxStreamsPerUser, queueCapacity, false);
+        FunctionCounter.builder("trading.orders.stream.dropped", streams, UserStreams::getDroppedEvents)
+                .description("Order updates dropped because a stream's queue was full")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return streams.subscribe(userId);
+    }
+
+    void publish(long userId, OrderUpdate update) {
+        streams.publish(userId, update);
+    }
+}
@@ -0,0 +1,113 @@
+package com.commodityx.backend.order;
+
+import com.commodityx.backend.account.OpenOrder;
+import com.commodityx.backend.dto.OrderUpdate;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.OrderState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latest state of every live or recently finished order, for the status endpoint and the
+ * order stream. Every change of an order is recorded under its owner's account lock, so the
+ * changes of one order arrive here in order, and each state is derived from the order's own
+ * counters: a fill settled before the book's acknowledgement still reads PARTIALLY_FILLED,
+ * never ACCEPTED again. Finished orders are kept for {@code trading.orders.status-retention-ms}
+ * and then left to the database.
+ */
+@Component
+public class OrderTracker {
+
+    @Autowired
+    private OrderNotifier orderNotifier;
+
+    @Value("${trading.orders.status-retention-ms:60000}")
+    private long retentionMs;
+
+    private final ConcurrentMap<Long, TrackedOrder> orders = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, retentionMs, retentionMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Records the order's current state and pushes it to the owner's streams. Must be called
+     * under the owner's account lock.
+     */
+    public void update(OpenOrder order) {
+        TrackedOrder previous = orders.get(order.getOrderId());
+        OrderUpdate update = new OrderUpdate(order.getOrderId(), order.getCommodityId(), order.getSide(), state(order),
+                PriceScale.fromLots(order.getQuantityLots()), PriceScale.fromTicks(order.getPriceTicks()),
+                PriceScale.fromLots(order.getFilledLots()), previous == null ? 1 : previous.update.getVersion() + 1,
+                LocalDateTime.now());
+        orders.put(order.getOrderId(),
+                new TrackedOrder(order.getUserId(), update, order.isDone() ? System.currentTimeMillis() : 0));
+        orderNotifier.publish(order.getUserId(), update);
+    }
+
+    /**
+     * The latest update of the order, or null if it is no longer tracked.
+     */
+    public OrderUpdate get(long userId, long orderId) {
+        TrackedOrder tracked = orders.get(orderId);
+        if (tracked == null) {
+            return null;
+        }
+        if (tracked.userId != userId) {
+            throw new RuntimeException("Unauthorized to view this order");
+        }
+        return tracked.update;
+    }
+
+    private static OrderState state(OpenOrder order) {
+        if (order.getCancelledLots() > 0) {
+            return OrderState.CANCELLED;
+        }
+        if (order.isFilled()) {
+            return OrderState.FILLED;
+        }
+        if (order.getFilledLots() > 0) {
+            return OrderState.PARTIALLY_FILLED;
+        }
+        return order.isBooked() ? OrderState.ACCEPTED : OrderState.PENDING;
+    }
+
+    private void sweep() {
+        long expired = System.currentTimeMillis() - retentionMs;
+        orders.values().removeIf(tracked -> tracked.doneAt != 0 && tracked.doneAt <= expired);
+    }
+
+    private static final class TrackedOrder {
+        private final long userId;
+        private final OrderUpdate update;
+        private final long doneAt;
+
+        private TrackedOrder(long userId, OrderUpdate update, long doneAt) {
+            this.userId = userId;
+            this.update = update;
+            this.doneAt = doneAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.commodityx.backend.persistence;
+
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.journal.*;
+import com.commodityx.backend.model.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/**
+ * Folds a batch of journal events into as few row writes as possible: one insert or update
+ * per order, the last balance per user and the last position per holding. Trade history rows
+ * are append-only, so each fill still produces its own pair of transactions.
+ */
+class CoalescedWrites {
+
+    private static final String INSERT_ORDER = "INSERT INTO orders (id, user_id, commodity_id, order_type, "
+            + "quantity, price, filled_quantity, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_ORDER = "UPDATE orders SET filled_quantity = COALESCE(?, filled_quantity), "
+            + "status = COALESCE(?, status) WHERE id = ?";
+    private static final String UPDATE_BALANCE = "UPDATE users SET balance = ?, version = version + 1 WHERE id = ?";
+    private static final String UPSERT_POSITION = "INSERT INTO portfolio (user_id, commodity_id, quantity, "
+            + "average_price, version, updated_at) VALUES (?, ?, ?, ?, 0, ?) ON DUPLICATE KEY UPDATE "
+            + "quantity = VALUES(quantity), average_price = VALUES(average_price), version = version + 1, "
+            + "updated_at = VALUES(updated_at)";
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions (id, user_id, type, amount, "
+            + "description, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final Map<Long, OrderRow> insertedOrders = new LinkedHashMap<>();
+    private final Map<Long, OrderRow> updatedOrders = new LinkedHashMap<>();
+    private final Map<Long, BalanceChangedEvent> balances = new LinkedHashMap<>();
+    private final Map<PositionKey, PositionChangedEvent> positions = new LinkedHashMap<>();
+    private final List<OrderFilledEvent> fills = new ArrayList<>();
+
+    void add(JournalEvent event) {
+        if (event instanceof OrderAcceptedEvent accepted) {
+            insertedOrders.put(accepted.getOrderId(), new OrderRow(accepted));
+        } else if (event instanceof OrderFilledEvent filled) {
+            orderRow(filled.getBuyOrderId()).fill(filled.getBuyFilledLots(), filled.isBuyComplete());
+            orderRow(filled.getSellOrderId()).fill(filled.getSellFilledLots(), filled.isSellComplete());
+            fills.add(filled);
+        } else if (event instanceof OrderCancelledEvent cancelled) {
+            orderRow(cancelled.getOrderId()).status = OrderStatus.CANCELLED;
+        } else if (event instanceof BalanceChangedEvent balance) {
+            balances.put(balance.getUserId(), balance);
+        } else if (event instanceof PositionChangedEvent position) {
+            positions.put(new PositionKey(position.getUserId(), position.getCommodityId()), position);
+        }
+    }
+
+    void apply(JdbcTemplate jdbcTemplate, LongFunction<String> commodityNames, IntFunction<long[]> transactionIds) {
+        if (!insertedOrders.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(insertedOrders.size());
+            for (OrderRow row : insertedOrders.values()) {
+                OrderAcceptedEvent accepted = row.accepted;
+                rows.add(new Object[]{accepted.getOrderId(), accepted.getUserId(), accepted.getCommodityId(),
+                        accepted.getSide().name(), PriceScale.fromLots(accepted.getQuantityLots()),
+                        PriceScale.fromTicks(accepted.getPriceTicks()), PriceScale.fromLots(row.filledLots),
+                        (row.status == null ? OrderStatus.PENDING : row.status).name(),
+                        new Timestamp(accepted.getTimestamp())});
+            }
+            jdbcTemplate.batchUpdate(INSERT_ORDER, rows);
+        }
+
+        if (!updatedOrders.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(updatedOrders.size());
+            for (Map.Entry<Long, OrderRow> entry : updatedOrders.entrySet()) {
+                OrderRow row = entry.getValue();
+                rows.add(new Object[]{row.filledLots < 0 ? null : PriceScale.fromLots(row.filledLots),
+                        row.status == null ? null : row.status.name(), entry.getKey()});
+            }
+            jdbcTemplate.batchUpdate(UPDATE_ORDER, rows, new int[]{Types.DECIMAL, Types.VARCHAR, Types.BIGINT});
+        }
+
+        if (!balances.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(balances.size());
+            for (BalanceChangedEvent balance : balances.values()) {
+                rows.add(new Object[]{PriceScale.fromMicros(balance.getBalanceMicros()), balance.getUserId()});
+            }
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, rows);
+        }
+
+        if (!positions.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(positions.size());
+            for (PositionChangedEvent position : positions.values()) {
+                rows.add(new Object[]{position.getUserId(), position.getCommodityId(),
+                        PriceScale.fromLots(position.getQuantityLots()),
+                        PriceScale.fromTicks(position.getAveragePriceTicks()),
+                        new Timestamp(position.getTimestamp())});
+            }
+            jdbcTemplate.batchUpdate(UPSERT_POSITION, rows);
+        }
+
+        if (!fills.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(fills.size() * 2);
+            long[] ids = transactionIds.apply(fills.size() * 2);
+            int next = 0;
+            for (OrderFilledEvent fill : fills) {
+                BigDecimal notional = PriceScale.fromMicros(PriceScale.notionalMicros(fill.getPriceTicks(), fill.getQuantityLots()));
+                String units = PriceScale.fromLots(fill.getQuantityLots()).stripTrailingZeros().toPlainString();
+                String name = commodityNames.apply(fill.getCommodityId());
+                Timestamp createdAt = new Timestamp(fill.getTimestamp());
+                rows.add(new Object[]{ids[next++], fill.getBuyerId(), "BUY", notional.negate(), "Bought " + units + " " + name, createdAt});
+                rows.add(new Object[]{ids[next++], fill.getSellerId(), "SELL", notional, "Sold " + units + " " + name, createdAt});
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows);
+        }
+    }
+
+    private OrderRow orderRow(long orderId) {
+        OrderRow row = insertedOrders.get(orderId);
+        return row != null ? row : updatedOrders.computeIfAbsent(orderId, id -> new OrderRow(null));
+    }
+
+    private record PositionKey(long userId, long commodityId) {
+    }
+
+    /**
+     * Pending writes for one order. Inserts start from the accepted event; updates only carry
+     * the columns that changed, with -1 and null meaning "leave as is".
+     */
+    private static final class OrderRow {
+        private final OrderAcceptedEvent accepted;
+        private long filledLots;
+        private OrderStatus status;
+
+        private OrderRow(OrderAcceptedEvent accepted) {
+            this.accepted = accepted;
+            this.filledLots = accepted == null ? -1 : 0;
+        }
+
+        private void fill(long cumulativeLots, boolean complete) {
+            filledLots = cumulativeLots;
+            if (complete) {
+                status = OrderStatus.COMPLETED;
+            }
+        }
+    }
+}
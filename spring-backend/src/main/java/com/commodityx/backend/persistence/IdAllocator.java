@@ -0,0 +1,102 @@
+package com.commodityx.backend.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out ids for entities mapped to a pooled {@link TableGenerator}, for rows the JDBC
+ * writers insert themselves. Ids come from the same generator Hibernate uses for the entity,
+ * so both paths share one in-memory block and only go to the {@code id_sequences} table once
+ * per block, in a transaction of their own.
+ */
+@Component
+public class IdAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdAllocator.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    @PostConstruct
+    public void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public long next(Class<?> entity) {
+        return next(entity, 1)[0];
+    }
+
+    /**
+     * How many ids one trip to the sequence table reserves for the entity.
+     */
+    public int blockSize(Class<?> entity) {
+        return generator(entity).getIncrementSize();
+    }
+
+    public long[] next(Class<?> entity, int count) {
+        TableGenerator generator = generator(entity);
+        long[] ids = new long[count];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Moves the entity's sequence past the largest id already in its table, so blocks never
+     * overlap rows inserted before the table was allocated from, e.g. with AUTO_INCREMENT.
+     * Must run before the first id of the entity is handed out.
+     */
+    public void seed(Class<?> entity) {
+        EntityPersister persister = persister(entity);
+        TableGenerator generator = generator(entity);
+        String table = ((AbstractEntityPersister) persister).getTableName();
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+
+        // A block read as n starts at n - increment + 1, or one later when Hibernate stores the last value used
+        long nextValue = (maxId == null ? 0 : maxId) + generator.getIncrementSize();
+        String sequences = generator.getTableName();
+        int raised = jdbcTemplate.update("UPDATE " + sequences + " SET " + generator.getValueColumnName()
+                + " = ? WHERE " + generator.getSegmentColumnName() + " = ? AND " + generator.getValueColumnName()
+                + " < ?", nextValue, generator.getSegmentValue(), nextValue);
+        if (raised == 0) {
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + sequences + " WHERE "
+                    + generator.getSegmentColumnName() + " = ?", Integer.class, generator.getSegmentValue());
+            if (rows != null && rows > 0) {
+                return;
+            }
+            jdbcTemplate.update("INSERT INTO " + sequences + " (" + generator.getSegmentColumnName() + ", "
+                    + generator.getValueColumnName() + ") VALUES (?, ?)", generator.getSegmentValue(), nextValue);
+        }
+        logger.info("Seeded id sequence {} above {}", generator.getSegmentValue(), maxId);
+    }
+
+    private EntityPersister persister(Class<?> entity) {
+        return sessionFactory.getMappingMetamodel().getEntityDescriptor(entity);
+    }
+
+    private TableGenerator generator(Class<?> entity) {
+        if (!(persister(entity).getGenerator() instanceof TableGenerator generator)) {
+            throw new IllegalStateException(entity.getSimpleName() + " is not mapped to a table generator");
+        }
+        return generator;
+    }
+}
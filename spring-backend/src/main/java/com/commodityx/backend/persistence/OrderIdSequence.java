@@ -0,0 +1,44 @@
+package com.commodityx.backend.persistence;
+
+import com.commodityx.backend.model.Order;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out order ids in memory, since orders are acknowledged before their row is inserted.
+ * Ids are taken a block at a time from the order sequence, which is seeded after the
+ * write-behind replay so ids of journaled orders are never reused.
+ */
+@Component
+@DependsOn("writeBehindPipeline")
+public class OrderIdSequence {
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] block = new long[0];
+    private int position;
+
+    @PostConstruct
+    public void init() {
+        idAllocator.seed(Order.class);
+    }
+
+    public long next() {
+        lock.lock();
+        try {
+            if (position == block.length) {
+                block = idAllocator.next(Order.class, idAllocator.blockSize(Order.class));
+                position = 0;
+            }
+            return block[position++];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.commodityx.backend.persistence;
+
+import com.commodityx.backend.dto.WriteBehindStats;
+import com.commodityx.backend.journal.JournalEvent;
+import com.commodityx.backend.journal.TradeJournal;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.model.JournalCheckpoint;
+import com.commodityx.backend.model.Transaction;
+import com.commodityx.backend.repository.CommodityRepository;
+import com.commodityx.backend.repository.JournalCheckpointRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Carries trading state changes from memory to the database. Events are appended to the
+ * {@link TradeJournal} and queued in the same step; a single writer thread drains the queue,
+ * coalesces each batch and writes it with JDBC batches in one transaction that also advances
+ * the checkpoint. On startup everything journaled after the checkpoint is flushed before the
+ * application takes traffic, so an acknowledged order survives a restart. Journal segments the
+ * checkpoint has moved past are deleted after each flush.
+ */
+@Component
+public class WriteBehindPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindPipeline.class);
+
+    static final String CHECKPOINT_NAME = "write-behind";
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    @Autowired
+    private TradeJournal journal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private CommodityRepository commodityRepository;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.write-behind.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${trading.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final Map<Long, String> commodityNames = new HashMap<>();
+    private BlockingQueue<JournalEvent> queue;
+    private Thread writer;
+    private volatile boolean stopping;
+
+    private final AtomicLong flushedEvents = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile long flushedSequence;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void start() throws IOException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        registerMeters();
+
+        long checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(() -> checkpointRepository.save(new JournalCheckpoint(CHECKPOINT_NAME, 0L)))
+                .getSequence();
+        journal.ensureSequenceAtLeast(checkpoint);
+        flushedSequence = checkpoint;
+        idAllocator.seed(Transaction.class);
+
+        // Anything journaled but not yet flushed must reach the database before new trading starts
+        List<JournalEvent> batch = new ArrayList<>(batchSize);
+        long before = flushedEvents.get();
+        journal.replay(checkpoint, event -> {
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                flush(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+        if (flushedEvents.get() > before) {
+            logger.info("Replayed {} journal events after sequence {}", flushedEvents.get() - before, checkpoint);
+        }
+
+        writer = new Thread(this::drain, "write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Journals the events as one group and queues them for the database. Blocks while the queue
+     * is full, which slows trading down to the rate the database can absorb.
+     */
+    public void publish(JournalEvent... events) {
+        publishLock.lock();
+        try {
+            journal.append(events);
+            for (JournalEvent event : events) {
+                enqueue(event);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void registerMeters() {
+        flushTimer = Timer.builder("trading.write-behind.flush")
+                .description("Time to write one coalesced batch and advance the checkpoint")
+                .register(meterRegistry);
+        Gauge.builder("trading.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Events journaled but not yet taken by the writer")
+                .register(meterRegistry);
+        Gauge.builder("trading.write-behind.lag", this, pipeline -> journal.getLastSequence() - pipeline.flushedSequence)
+                .description("Journal sequences not yet flushed to the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("trading.write-behind.events", flushedEvents, AtomicLong::get)
+                .description("Events flushed to the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("trading.write-behind.failures", failedFlushes, AtomicLong::get)
+                .description("Batch flushes that failed and were retried")
+                .register(meterRegistry);
+    }
+
+    public WriteBehindStats getStats() {
+        long batches = flushedBatches.get();
+        return new WriteBehindStats(queue.size(), queueCapacity, journal.getLastSequence(), flushedSequence,
+                flushedEvents.get(), batches, failedFlushes.get(), millis(lastFlushNanos),
+                batches == 0 ? 0 : millis(totalFlushNanos.get() / batches), millis(maxFlushNanos));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void enqueue(JournalEvent event) {
+        // Already journaled, so it must be queued even if this thread is interrupted meanwhile
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(event);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<JournalEvent> batch = new ArrayList<>(batchSize);
+        while (!stopping || !queue.isEmpty()) {
+            JournalEvent first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            if (!flushWithRetry(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Retries a failed batch with backoff until it succeeds. A batch is never skipped, since the
+     * checkpoint would then move past events that were not written. On shutdown the writer gives
+     * up instead and leaves the remainder to be replayed from the journal.
+     */
+    private boolean flushWithRetry(List<JournalEvent> batch) {
+        long backoff = 100;
+        while (true) {
+            try {
+                flush(batch);
+                return true;
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                if (stopping) {
+                    logger.error("Stopped with {} unflushed events after sequence {}; they will be replayed from the journal",
+                            batch.size() + queue.size(), flushedSequence);
+                    return false;
+                }
+                logger.error("Write-behind flush of {} events failed, retrying in {} ms: {}",
+                        batch.size(), backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void flush(List<JournalEvent> batch) {
+        long started = System.nanoTime();
+        CoalescedWrites writes = new CoalescedWrites();
+        for (JournalEvent event : batch) {
+            writes.add(event);
+        }
+        long lastSequence = batch.get(batch.size() - 1).getSequence();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writes.apply(jdbcTemplate, this::commodityName, count -> idAllocator.next(Transaction.class, count));
+            jdbcTemplate.update("UPDATE journal_checkpoints SET sequence = ? WHERE name = ?",
+                    lastSequence, CHECKPOINT_NAME);
+        });
+
+        long elapsed = System.nanoTime() - started;
+        flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        flushedSequence = lastSequence;
+        flushedEvents.addAndGet(batch.size());
+        flushedBatches.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) {
+            maxFlushNanos = elapsed;
+        }
+        try {
+            journal.release(lastSequence);
+        } catch (IOException e) {
+            logger.error("Failed to delete journal segments up to sequence {}: {}", lastSequence, e.getMessage());
+        }
+    }
+
+    private String commodityName(long commodityId) {
+        return commodityNames.computeIfAbsent(commodityId, id -> commodityRepository.findById(id)
+                .map(Commodity::getName)
+                .orElse("commodity #" + id));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.commodityx.backend.repository;
+
+import com.commodityx.backend.model.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+}
@@ -1,15 +1,29 @@
 package com.commodityx.backend.repository;
 
+import com.commodityx.backend.dto.OrderView;
 import com.commodityx.backend.model.Order;
 import com.commodityx.backend.model.OrderStatus;
-import com.commodityx.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserOrderByCreatedAtDesc(User user);
-    List<Order> findByUserAndStatusOrderByCreatedAtDesc(User user, OrderStatus status);
+    String SELECT_VIEW = "SELECT new com.commodityx.backend.dto.OrderView(o.id, c.id, c.symbol, c.name, o.orderType, "
+            + "o.quantity, o.price, o.filledQuantity, o.status, o.createdAt) FROM Order o JOIN o.commodity c ";
+
+    @Query(SELECT_VIEW + "WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderView> findViewsByUserId(@Param("userId") long userId, Limit limit);
+
+    @Query(SELECT_VIEW + "WHERE o.user.id = :userId AND (o.createdAt < :createdAt "
+            + "OR (o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderView> findViewsBefore(@Param("userId") long userId, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") long id, Limit limit);
+
+    List<Order> findByStatusOrderByIdAsc(OrderStatus status);
 }
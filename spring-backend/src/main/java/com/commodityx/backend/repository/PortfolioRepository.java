@@ -1,16 +1,18 @@
 package com.commodityx.backend.repository;
 
-import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.dto.PortfolioView;
 import com.commodityx.backend.model.Portfolio;
-import com.commodityx.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
-    List<Portfolio> findByUser(User user);
-    Optional<Portfolio> findByUserAndCommodity(User user, Commodity commodity);
+    @Query("SELECT new com.commodityx.backend.dto.PortfolioView(p.id, c.id, c.symbol, c.name, p.quantity, "
+            + "p.averagePrice, c.currentPrice, p.updatedAt) FROM Portfolio p JOIN p.commodity c "
+            + "WHERE p.user.id = :userId AND p.quantity > 0")
+    List<PortfolioView> findHeldViewsByUserId(@Param("userId") long userId);
 }
@@ -1,14 +1,22 @@
 package com.commodityx.backend.repository;
 
+import com.commodityx.backend.dto.PriceAlertView;
 import com.commodityx.backend.model.PriceAlert;
-import com.commodityx.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
-    List<PriceAlert> findByUser(User user);
-    List<PriceAlert> findByUserAndIsActiveTrue(User user);
+    String SELECT_VIEW = "SELECT new com.commodityx.backend.dto.PriceAlertView(a.id, c.id, c.symbol, c.name, "
+            + "a.targetPrice, a.condition, a.isActive, a.createdAt, a.triggeredAt) FROM PriceAlert a JOIN a.commodity c ";
+
+    @Query(SELECT_VIEW + "WHERE a.user.id = :userId")
+    List<PriceAlertView> findViewsByUserId(@Param("userId") long userId);
+
+    @Query(SELECT_VIEW + "WHERE a.user.id = :userId AND a.isActive = true")
+    List<PriceAlertView> findActiveViewsByUserId(@Param("userId") long userId);
 }
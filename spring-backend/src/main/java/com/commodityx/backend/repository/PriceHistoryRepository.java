@@ -0,0 +1,14 @@
+package com.commodityx.backend.repository;
+
+import com.commodityx.backend.model.PriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+    List<PriceHistory> findByCommodityIdAndResolutionAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(
+            Long commodityId, String resolution, LocalDateTime from, LocalDateTime to);
+}
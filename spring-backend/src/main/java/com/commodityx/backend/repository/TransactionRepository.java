@@ -1,13 +1,26 @@
 package com.commodityx.backend.repository;
 
+import com.commodityx.backend.dto.TransactionView;
 import com.commodityx.backend.model.Transaction;
-import com.commodityx.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserOrderByCreatedAtDesc(User user);
+    String SELECT_VIEW = "SELECT new com.commodityx.backend.dto.TransactionView(t.id, t.type, t.amount, "
+            + "t.description, t.createdAt) FROM Transaction t ";
+
+    @Query(SELECT_VIEW + "WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findViewsByUserId(@Param("userId") long userId, Limit limit);
+
+    @Query(SELECT_VIEW + "WHERE t.user.id = :userId AND (t.createdAt < :createdAt "
+            + "OR (t.createdAt = :createdAt AND t.id < :id)) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findViewsBefore(@Param("userId") long userId, @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") long id, Limit limit);
 }
@@ -1,9 +1,12 @@
 package com.commodityx.backend.repository;
 
+import com.commodityx.backend.dto.WatchlistView;
 import com.commodityx.backend.model.Commodity;
 import com.commodityx.backend.model.User;
 import com.commodityx.backend.model.Watchlist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +14,10 @@ import java.util.Optional;
 
 @Repository
 public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
-    List<Watchlist> findByUser(User user);
+    @Query("SELECT new com.commodityx.backend.dto.WatchlistView(w.id, c.id, c.symbol, c.name, c.currentPrice, "
+            + "c.priceChange24h, w.addedAt) FROM Watchlist w JOIN w.commodity c WHERE w.user.id = :userId")
+    List<WatchlistView> findViewsByUserId(@Param("userId") long userId);
+
     Optional<Watchlist> findByUserAndCommodity(User user, Commodity commodity);
     void deleteByUserAndCommodity(User user, Commodity commodity);
 }
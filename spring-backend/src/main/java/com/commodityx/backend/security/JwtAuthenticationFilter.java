@@ -31,10 +31,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            JwtUtils.VerifiedToken token = jwt == null ? null : jwtUtils.verify(jwt);
+            if (token != null) {
+                UserDetails userDetails = token.getUserId() != null
+                        ? new UserPrincipal(token.getUserId(), token.getSubject(), null, token.getAuthorities())
+                        : userDetailsService.loadUserByUsername(token.getSubject());
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -2,20 +2,36 @@ package com.commodityx.backend.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String CACHE_NAME = "jwt-verified";
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -23,38 +39,106 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.verified-cache-size:100000}")
+    private int verifiedCacheSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKey key;
+    private JwtParser parser;
+    // Keyed by the token itself, so a hash collision can never hand one token another's subject
+    private final ConcurrentMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer rejectedTimer;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    private Counter cacheEvictions;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+
+        cachedTimer = verifyTimer("cached");
+        verifiedTimer = verifyTimer("verified");
+        rejectedTimer = verifyTimer("rejected");
+        cacheHits = meterRegistry.counter("cache.gets", "cache", CACHE_NAME, "result", "hit");
+        cacheMisses = meterRegistry.counter("cache.gets", "cache", CACHE_NAME, "result", "miss");
+        cacheEvictions = meterRegistry.counter("cache.evictions", "cache", CACHE_NAME);
+        Gauge.builder("cache.size", verified, ConcurrentMap::size).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    private Timer verifyTimer(String result) {
+        return Timer.builder("jwt.verify")
+                .description("Time to authenticate a request's bearer token")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername());
+        if (!(userPrincipal instanceof UserPrincipal principal)) {
+            return generateTokenFromUsername(userPrincipal.getUsername());
+        }
+        List<String> roles = principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+        return builder(principal.getUsername())
+                .claim(USER_ID_CLAIM, principal.getId())
+                .claim(ROLES_CLAIM, roles)
+                .compact();
     }
 
     public String generateTokenFromUsername(String username) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return builder(username).compact();
+    }
 
+    private JwtBuilder builder(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
+                .signWith(key, SignatureAlgorithm.HS256);
     }
 
     public String getUserNameFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return verify(authToken) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if it is not valid.
+     * Tokens verified before are answered from a bounded cache until they expire, skipping
+     * the signature check.
+     */
+    public VerifiedToken verify(String authToken) {
+        long started = System.nanoTime();
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = authToken == null ? null : verified.get(authToken);
+        if (cached != null) {
+            cacheHits.increment();
+            if (cached.getExpiresAt() > now) {
+                cachedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return cached;
+            }
+            verified.remove(authToken, cached);
+            logger.error("JWT token is expired: {}", cached.getSubject());
+            rejectedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        cacheMisses.increment();
+
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseSignedClaims(authToken).getPayload();
+            VerifiedToken token = new VerifiedToken(claims.getSubject(), userId(claims), authorities(claims),
+                    claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime());
+            cache(authToken, token, now);
+            verifiedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return token;
         } catch (SecurityException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -67,6 +151,74 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        rejectedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return null;
+    }
+
+    private static Long userId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId == null ? null : userId.longValue();
+    }
+
+    private static List<GrantedAuthority> authorities(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return UserDetailsServiceImpl.USER_AUTHORITIES;
+        }
+        return roles.stream().<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString())).toList();
+    }
+
+    private void cache(String authToken, VerifiedToken token, long now) {
+        if (verifiedCacheSize <= 0) {
+            return;
+        }
+        if (verified.size() >= verifiedCacheSize) {
+            int size = verified.size();
+            verified.values().removeIf(entry -> entry.getExpiresAt() <= now);
+            if (verified.size() >= verifiedCacheSize) {
+                // Full of live tokens: drop an arbitrary eighth so the sweep does not run on every miss
+                int evict = Math.max(1, verifiedCacheSize / 8);
+                Iterator<VerifiedToken> iterator = verified.values().iterator();
+                while (evict-- > 0 && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            cacheEvictions.increment(Math.max(0, size - verified.size()));
+        }
+        verified.put(authToken, token);
+    }
+
+    public static final class VerifiedToken {
+        private final String subject;
+        private final Long userId;
+        private final List<GrantedAuthority> authorities;
+        private final long expiresAt;
+
+        private VerifiedToken(String subject, Long userId, List<GrantedAuthority> authorities, long expiresAt) {
+            this.subject = subject;
+            this.userId = userId;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        /**
+         * The user id claim, or null for tokens issued before it was added.
+         */
+        public Long getUserId() {
+            return userId;
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
     }
 }
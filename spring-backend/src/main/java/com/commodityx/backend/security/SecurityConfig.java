@@ -1,6 +1,8 @@
 package com.commodityx.backend.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,6 +22,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -28,6 +32,9 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public JwtAuthenticationFilter authenticationJwtTokenFilter() {
         return new JwtAuthenticationFilter();
@@ -57,7 +64,14 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/auth/**").permitAll()
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Scrapers hold no token, so metrics are only open on a separate management port
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort)
+                    .permitAll()
+                // Path matchers, as the management port runs a second dispatcher servlet
+                .requestMatchers(antMatcher("/api/auth/**")).permitAll()
+                .requestMatchers(antMatcher("/actuator/health")).permitAll()
+                .requestMatchers(antMatcher("/actuator/**"), antMatcher("/api/system/**")).hasRole("ADMIN")
                 .anyRequest().authenticated()
             );
 
@@ -0,0 +1,109 @@
+package com.commodityx.backend.security;
+
+import com.commodityx.backend.model.User;
+import com.commodityx.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Detached {@link User} rows by id, for services that need the current user as an entity to
+ * query or link by. Each request resolves its user at most once, and the rows are shared
+ * across requests for a short TTL, so a burst of requests from one user costs one lookup.
+ * Entries are never invalidated, only expired: the one write to an existing users row is the
+ * write-behind balance update, and the account book holds the live balance. Cached rows are
+ * only linked to, never saved, so their stale balance and version are never written back.
+ */
+@Component
+public class UserCache {
+
+    private static final String REQUEST_ATTRIBUTE = UserCache.class.getName() + ".user";
+    private static final String CACHE_NAME = "users";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.user-cache-ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${jwt.user-cache-size:100000}")
+    private int maxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Long, CachedUser> users = new ConcurrentHashMap<>();
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    public void registerMeters() {
+        hits = meterRegistry.counter("cache.gets", "cache", CACHE_NAME, "result", "hit");
+        misses = meterRegistry.counter("cache.gets", "cache", CACHE_NAME, "result", "miss");
+        evictions = meterRegistry.counter("cache.evictions", "cache", CACHE_NAME);
+        Gauge.builder("cache.size", users, ConcurrentMap::size).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public User get(long userId) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && user.getId() == userId) {
+            return user;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedUser cached = users.get(userId);
+        User user;
+        if (cached != null && cached.expiresAt > now) {
+            hits.increment();
+            user = cached.user;
+        } else {
+            misses.increment();
+            user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+            put(userId, new CachedUser(user, now + ttlMs), now);
+        }
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    private void put(long userId, CachedUser user, long now) {
+        if (users.size() >= maxSize) {
+            int size = users.size();
+            users.values().removeIf(entry -> entry.expiresAt <= now);
+            if (users.size() >= maxSize) {
+                int evict = Math.max(1, maxSize / 8);
+                Iterator<CachedUser> iterator = users.values().iterator();
+                while (evict-- > 0 && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            evictions.increment(Math.max(0, size - users.size()));
+        }
+        users.put(userId, user);
+    }
+
+    private static final class CachedUser {
+        private final User user;
+        private final long expiresAt;
+
+        private CachedUser(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.commodityx.backend.service;
 
+import com.commodityx.backend.alert.AlertEngine;
+import com.commodityx.backend.alert.AlertNotifier;
 import com.commodityx.backend.dto.AlertRequest;
+import com.commodityx.backend.dto.PriceAlertView;
+import com.commodityx.backend.engine.PriceScale;
 import com.commodityx.backend.model.AlertCondition;
 import com.commodityx.backend.model.Commodity;
 import com.commodityx.backend.model.PriceAlert;
@@ -10,6 +14,9 @@ import com.commodityx.backend.repository.PriceAlertRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,18 +33,22 @@ public class AlertService {
     @Autowired
     private AuthService authService;
 
-    public List<PriceAlert> getUserAlerts() {
-        User user = authService.getCurrentUser();
-        return priceAlertRepository.findByUser(user);
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private AlertNotifier alertNotifier;
+
+    public List<PriceAlertView> getUserAlerts() {
+        return priceAlertRepository.findViewsByUserId(authService.getCurrentUserId());
     }
 
-    public List<PriceAlert> getUserActiveAlerts() {
-        User user = authService.getCurrentUser();
-        return priceAlertRepository.findByUserAndIsActiveTrue(user);
+    public List<PriceAlertView> getUserActiveAlerts() {
+        return priceAlertRepository.findActiveViewsByUserId(authService.getCurrentUserId());
     }
 
     @Transactional
-    public PriceAlert createAlert(AlertRequest request) {
+    public PriceAlertView createAlert(AlertRequest request) {
         User user = authService.getCurrentUser();
         Commodity commodity = commodityRepository.findById(request.getCommodityId())
                 .orElseThrow(() -> new RuntimeException("Commodity not found"));
@@ -52,7 +63,17 @@ public class AlertService {
         alert.setIsActive(true);
         alert.setCreatedAt(LocalDateTime.now());
 
-        return priceAlertRepository.save(alert);
+        PriceAlert saved = priceAlertRepository.save(alert);
+
+        // Only index the alert once the row exists for the engine to deactivate
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alertEngine.add(saved.getId(), user.getId(), commodity.getId(), condition,
+                        PriceScale.toTicks(saved.getTargetPrice()));
+            }
+        });
+        return PriceAlertView.of(saved);
     }
 
     @Transactional
@@ -65,6 +86,14 @@ public class AlertService {
             throw new RuntimeException("Unauthorized to delete this alert");
         }
 
+        if (Boolean.TRUE.equals(alert.getIsActive())) {
+            alertEngine.remove(alert.getId(), alert.getCommodity().getId(), alert.getCondition(),
+                    PriceScale.toTicks(alert.getTargetPrice()));
+        }
         priceAlertRepository.delete(alert);
     }
+
+    public SseEmitter streamAlerts() {
+        return alertNotifier.subscribe(authService.getCurrentUserId());
+    }
 }
@@ -8,6 +8,8 @@ import com.commodityx.backend.model.User;
 import com.commodityx.backend.repository.TransactionRepository;
 import com.commodityx.backend.repository.UserRepository;
 import com.commodityx.backend.security.JwtUtils;
+import com.commodityx.backend.security.UserCache;
+import com.commodityx.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -38,6 +40,9 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private UserCache userCache;
+
     @Transactional
     public JwtResponse register(RegisterRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -95,10 +100,24 @@ public class AuthService {
                 user.getFullName(), user.getBalance(), user.getIsAdmin());
     }
 
+    /**
+     * The current user's row, from the {@link UserCache}; its balance may be stale.
+     */
     public User getCurrentUser() {
+        return userCache.get(getCurrentUserId());
+    }
+
+    public Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found")).getId();
+    }
+
+    public User getCurrentUserProfile() {
+        return userRepository.findById(getCurrentUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
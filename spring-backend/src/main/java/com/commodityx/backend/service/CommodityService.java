@@ -1,29 +1,89 @@
 package com.commodityx.backend.service;
 
+import com.commodityx.backend.dto.CommodityChanges;
+import com.commodityx.backend.dto.PriceHistoryResponse;
+import com.commodityx.backend.market.CandleResolution;
+import com.commodityx.backend.market.CommodityCatalog;
+import com.commodityx.backend.market.CommoditySnapshot;
+import com.commodityx.backend.market.PriceHistoryStore;
 import com.commodityx.backend.model.Commodity;
-import com.commodityx.backend.repository.CommodityRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CommodityService {
 
+    private static final int MAX_CANDLES = 5000;
+
+    @Autowired
+    private CommodityCatalog commodityCatalog;
+
     @Autowired
-    private CommodityRepository commodityRepository;
+    private PriceHistoryStore priceHistoryStore;
 
     public List<Commodity> getAllCommodities() {
-        return commodityRepository.findAll();
+        return commodityCatalog.getSnapshot().getCommodities();
+    }
+
+    public CommoditySnapshot getSnapshot() {
+        return commodityCatalog.getSnapshot();
+    }
+
+    public CommodityChanges getChangesSince(long version) {
+        return commodityCatalog.getChangesSince(version);
     }
 
     public Commodity getCommodityById(Long id) {
-        return commodityRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Commodity not found with id: " + id));
+        Commodity commodity = commodityCatalog.get(id);
+        if (commodity == null) {
+            throw new RuntimeException("Commodity not found with id: " + id);
+        }
+        return commodity;
     }
 
     public Commodity getCommodityBySymbol(String symbol) {
-        return commodityRepository.findBySymbol(symbol)
-                .orElseThrow(() -> new RuntimeException("Commodity not found with symbol: " + symbol));
+        Commodity commodity = commodityCatalog.get(symbol);
+        if (commodity == null) {
+            throw new RuntimeException("Commodity not found with symbol: " + symbol);
+        }
+        return commodity;
+    }
+
+    public PriceHistoryResponse getPriceHistory(Long id, String timeframe, String resolution) {
+        Commodity commodity = getCommodityById(id);
+        long range = switch (timeframe.toUpperCase()) {
+            case "1H" -> TimeUnit.HOURS.toMillis(1);
+            case "1D" -> TimeUnit.DAYS.toMillis(1);
+            case "1W" -> TimeUnit.DAYS.toMillis(7);
+            case "1M" -> TimeUnit.DAYS.toMillis(30);
+            case "3M" -> TimeUnit.DAYS.toMillis(90);
+            case "1Y" -> TimeUnit.DAYS.toMillis(365);
+            default -> throw new RuntimeException("Invalid timeframe: " + timeframe + " (expected 1H, 1D, 1W, 1M, 3M or 1Y)");
+        };
+
+        CandleResolution candleResolution;
+        if (resolution != null) {
+            candleResolution = CandleResolution.fromCode(resolution);
+        } else if (range <= TimeUnit.HOURS.toMillis(1)) {
+            candleResolution = CandleResolution.ONE_MINUTE;
+        } else if (range <= TimeUnit.DAYS.toMillis(1)) {
+            candleResolution = CandleResolution.FIVE_MINUTES;
+        } else if (range <= TimeUnit.DAYS.toMillis(30)) {
+            candleResolution = CandleResolution.ONE_HOUR;
+        } else {
+            candleResolution = CandleResolution.ONE_DAY;
+        }
+        if (range / candleResolution.getMillis() > MAX_CANDLES) {
+            throw new RuntimeException("Too many candles for timeframe " + timeframe + "; use a coarser resolution");
+        }
+
+        // Include the candle in progress at the start of the range
+        long to = System.currentTimeMillis() + 1;
+        long from = Math.floorDiv(to - range, candleResolution.getMillis()) * candleResolution.getMillis();
+        return new PriceHistoryResponse(commodity.getId(), commodity.getSymbol(), timeframe.toUpperCase(),
+                candleResolution.getCode(), priceHistoryStore.getCandles(commodity.getId(), candleResolution, from, to));
     }
 }
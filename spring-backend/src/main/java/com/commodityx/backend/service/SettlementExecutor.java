@@ -0,0 +1,49 @@
+package com.commodityx.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The threads that settle asynchronously matched orders, so the matching threads only match.
+ * Each commodity always settles on the same single thread, in the order its book produced the
+ * fills; fills of different commodities settle in parallel and are ordered per user by the
+ * account locks.
+ */
+@Component
+public class SettlementExecutor {
+
+    @Value("${trading.settlement.threads:4}")
+    private int threads;
+
+    private ExecutorService[] executors;
+
+    @PostConstruct
+    public void start() {
+        executors = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "settlement-" + (i + 1);
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    public Executor forCommodity(long commodityId) {
+        return executors[(int) Math.floorMod(commodityId, (long) executors.length)];
+    }
+}
@@ -0,0 +1,215 @@
+package com.commodityx.backend.service;
+
+import com.commodityx.backend.account.*;
+import com.commodityx.backend.engine.MatchResult;
+import com.commodityx.backend.engine.MatchingEngine;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.journal.BalanceChangedEvent;
+import com.commodityx.backend.journal.JournalEvent;
+import com.commodityx.backend.journal.OrderCancelledEvent;
+import com.commodityx.backend.journal.OrderFilledEvent;
+import com.commodityx.backend.journal.PositionChangedEvent;
+import com.commodityx.backend.market.TickIngestion;
+import com.commodityx.backend.model.OrderType;
+import com.commodityx.backend.order.OrderTracker;
+import com.commodityx.backend.persistence.WriteBehindPipeline;
+import com.commodityx.backend.valuation.ValuationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies the outcome of matching to the in-memory accounts and hands the resulting state to
+ * the write-behind pipeline. Each fill is applied under the account locks of both
+ * counterparties, so it is atomic with respect to their other orders.
+ */
+@Service
+public class TradeSettlementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeSettlementService.class);
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    @Autowired
+    private AccountBook accountBook;
+
+    @Autowired
+    private OpenOrders openOrders;
+
+    @Autowired
+    private WriteBehindPipeline writeBehindPipeline;
+
+    @Autowired
+    private TickIngestion tickIngestion;
+
+    @Autowired
+    private ValuationEngine valuationEngine;
+
+    @Autowired
+    private OrderTracker orderTracker;
+
+    @Autowired
+    private MatchingEngine matchingEngine;
+
+    @Autowired
+    private SettlementExecutor settlementExecutor;
+
+    /**
+     * Applies the fills in order. If one fails, the book has already taken its lots and those of
+     * the fills after it off both orders, so every order in them is withdrawn with those lots
+     * before the failure is rethrown.
+     */
+    public void settle(MatchResult result) {
+        for (int fill = 0; fill < result.getFillCount(); fill++) {
+            try {
+                applyFill(result.getBuyOrderId(fill), result.getBuyerId(fill),
+                        result.getSellOrderId(fill), result.getSellerId(fill),
+                        result.getPriceTicks(fill), result.getQuantityLots(fill));
+            } catch (RuntimeException e) {
+                withdrawUnsettled(result, fill);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Settles the fills of a newly submitted order and records that its book has processed it.
+     * An order that neither filled nor was cancelled in the meantime now rests as ACCEPTED.
+     */
+    public void settleSubmitted(OpenOrder order, MatchResult result) {
+        settle(result);
+        accountLocks.withLock(order.getUserId(), () -> {
+            order.markBooked();
+            if (order.getFilledLots() == 0 && order.getCancelledLots() == 0) {
+                orderTracker.update(order);
+            }
+            return null;
+        });
+    }
+
+    public void settleCancel(OpenOrder order, long remainingLots) {
+        accountLocks.withLock(order.getUserId(), () -> {
+            Account account = accountBook.get(order.getUserId());
+            long now = System.currentTimeMillis();
+
+            // Release whatever the unfilled remainder still had reserved
+            JournalEvent released;
+            if (order.getSide() == OrderType.BUY) {
+                account.credit(PriceScale.notionalMicros(order.getPriceTicks(), remainingLots));
+                released = new BalanceChangedEvent(now, account.getUserId(), account.getBalanceMicros());
+            } else {
+                Position position = account.openPosition(order.getCommodityId());
+                position.release(remainingLots);
+                released = new PositionChangedEvent(now, account.getUserId(), order.getCommodityId(),
+                        position.getQuantityLots(), position.getAveragePriceTicks());
+                valuationEngine.onPosition(account.getUserId(), order.getCommodityId(), position.getQuantityLots(),
+                        position.getAveragePriceTicks(), position.getVersion());
+            }
+
+            order.cancel(remainingLots);
+            if (order.isDone()) {
+                openOrders.remove(order.getOrderId());
+            }
+            orderTracker.update(order);
+
+            writeBehindPipeline.publish(
+                    new OrderCancelledEvent(now, order.getOrderId(), order.getUserId(), remainingLots),
+                    released);
+            return null;
+        });
+    }
+
+    /**
+     * Cancels an order whose matching or settlement failed, so it does not hold its reservation
+     * forever: pulls whatever still rests on its book and releases that together with
+     * {@code unsettledLots}, the lots the book took off it in fills that were never settled.
+     */
+    public void withdraw(OpenOrder order, long unsettledLots) {
+        matchingEngine.cancel(order.getCommodityId(), order.getOrderId())
+                .thenAcceptAsync(resting -> {
+                    if (unsettledLots + resting > 0) {
+                        settleCancel(order, unsettledLots + resting);
+                    }
+                }, settlementExecutor.forCommodity(order.getCommodityId()))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        logger.error("Could not withdraw order {}", order.getOrderId(), error);
+                    }
+                });
+    }
+
+    private void withdrawUnsettled(MatchResult result, int firstUnsettled) {
+        Map<Long, Long> unsettledLots = new LinkedHashMap<>();
+        for (int fill = firstUnsettled; fill < result.getFillCount(); fill++) {
+            unsettledLots.merge(result.getBuyOrderId(fill), result.getQuantityLots(fill), Long::sum);
+            unsettledLots.merge(result.getSellOrderId(fill), result.getQuantityLots(fill), Long::sum);
+        }
+        unsettledLots.forEach((orderId, lots) -> {
+            OpenOrder order = openOrders.get(orderId);
+            if (order != null) {
+                withdraw(order, lots);
+            }
+        });
+    }
+
+    private void applyFill(long buyOrderId, long buyerId, long sellOrderId, long sellerId,
+                           long priceTicks, long quantityLots) {
+        Bought bought = accountLocks.withLocks(new long[]{buyerId, sellerId}, () -> {
+            OpenOrder buyOrder = openOrders.get(buyOrderId);
+            OpenOrder sellOrder = openOrders.get(sellOrderId);
+            long commodityId = buyOrder.getCommodityId();
+            long notional = PriceScale.notionalMicros(priceTicks, quantityLots);
+            long now = System.currentTimeMillis();
+
+            // Buyer reserved cash at their limit; return any price improvement and credit the holding
+            Account buyer = accountBook.get(buyerId);
+            long priceImprovement = PriceScale.notionalMicros(buyOrder.getPriceTicks() - priceTicks, quantityLots);
+            if (priceImprovement > 0) {
+                buyer.credit(priceImprovement);
+            }
+            Position position = buyer.openPosition(commodityId);
+            position.buy(quantityLots, priceTicks);
+
+            // Seller's holding was reserved when the order was placed; only cash moves now
+            Account seller = accountBook.get(sellerId);
+            seller.credit(notional);
+
+            buyOrder.fill(quantityLots);
+            sellOrder.fill(quantityLots);
+            if (buyOrder.isDone()) {
+                openOrders.remove(buyOrderId);
+            }
+            if (sellOrder.isDone()) {
+                openOrders.remove(sellOrderId);
+            }
+            orderTracker.update(buyOrder);
+            orderTracker.update(sellOrder);
+
+            writeBehindPipeline.publish(
+                    new OrderFilledEvent(now, commodityId,
+                            buyOrderId, buyerId, buyOrder.getFilledLots(), buyOrder.isFilled(),
+                            sellOrderId, sellerId, sellOrder.getFilledLots(), sellOrder.isFilled(),
+                            priceTicks, quantityLots),
+                    new BalanceChangedEvent(now, buyerId, buyer.getBalanceMicros()),
+                    new PositionChangedEvent(now, buyerId, commodityId,
+                            position.getQuantityLots(), position.getAveragePriceTicks()),
+                    new BalanceChangedEvent(now, sellerId, seller.getBalanceMicros()));
+            return new Bought(commodityId, position.getQuantityLots(), position.getAveragePriceTicks(),
+                    position.getVersion());
+        });
+
+        // Fanned out after the locks are released; the version lets the valuation engine skip
+        // this update if one made later under the lock overtakes it
+        valuationEngine.onPosition(buyerId, bought.commodityId(), bought.quantityLots(),
+                bought.averagePriceTicks(), bought.version());
+        tickIngestion.onTrade(bought.commodityId(), priceTicks, quantityLots);
+    }
+
+    private record Bought(long commodityId, long quantityLots, long averagePriceTicks, long version) {
+    }
+}
@@ -1,15 +1,47 @@
 package com.commodityx.backend.service;
 
+import com.commodityx.backend.account.*;
+import com.commodityx.backend.dto.OrderPage;
 import com.commodityx.backend.dto.OrderRequest;
+import com.commodityx.backend.dto.OrderUpdate;
+import com.commodityx.backend.dto.OrderView;
+import com.commodityx.backend.dto.PortfolioValuation;
+import com.commodityx.backend.dto.PortfolioView;
+import com.commodityx.backend.engine.MatchResult;
+import com.commodityx.backend.engine.MatchingEngine;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.journal.BalanceChangedEvent;
+import com.commodityx.backend.journal.JournalEvent;
+import com.commodityx.backend.journal.OrderAcceptedEvent;
+import com.commodityx.backend.journal.PositionChangedEvent;
+import com.commodityx.backend.market.CommodityCatalog;
+import com.commodityx.backend.metrics.MetricsConfig;
 import com.commodityx.backend.model.*;
+import com.commodityx.backend.order.OrderNotifier;
+import com.commodityx.backend.order.OrderTracker;
+import com.commodityx.backend.persistence.OrderIdSequence;
+import com.commodityx.backend.persistence.WriteBehindPipeline;
 import com.commodityx.backend.repository.*;
+import com.commodityx.backend.valuation.ValuationEngine;
+import com.commodityx.backend.valuation.ValuationNotifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TradingService {
@@ -21,137 +53,333 @@ public class TradingService {
     private PortfolioRepository portfolioRepository;
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private CommodityCatalog commodityCatalog;
 
     @Autowired
-    private CommodityRepository commodityRepository;
+    private AuthService authService;
 
     @Autowired
-    private UserRepository userRepository;
+    private MatchingEngine matchingEngine;
 
     @Autowired
-    private AuthService authService;
+    private TradeSettlementService tradeSettlementService;
 
-    @Transactional
-    public Order placeOrder(OrderRequest request) {
-        User user = authService.getCurrentUser();
-        Commodity commodity = commodityRepository.findById(request.getCommodityId())
-                .orElseThrow(() -> new RuntimeException("Commodity not found"));
+    @Autowired
+    private SettlementExecutor settlementExecutor;
 
-        OrderType orderType = OrderType.valueOf(request.getOrderType().toUpperCase());
-        BigDecimal totalCost = request.getQuantity().multiply(request.getPrice());
+    @Autowired
+    private AccountLocks accountLocks;
 
-        // Validate order
-        if (orderType == OrderType.BUY) {
-            if (user.getBalance().compareTo(totalCost) < 0) {
-                throw new RuntimeException("Insufficient balance");
+    @Autowired
+    private AccountBook accountBook;
+
+    @Autowired
+    private OpenOrders openOrders;
+
+    @Autowired
+    private OrderIdSequence orderIdSequence;
+
+    @Autowired
+    private WriteBehindPipeline writeBehindPipeline;
+
+    @Autowired
+    private ValuationEngine valuationEngine;
+
+    @Autowired
+    private ValuationNotifier valuationNotifier;
+
+    @Autowired
+    private OrderTracker orderTracker;
+
+    @Autowired
+    private OrderNotifier orderNotifier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Logger logger = LoggerFactory.getLogger(TradingService.class);
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String ORDER_TIMER = "trading.order.place";
+    private static final String PHASE_TIMER = "trading.order.phase";
+
+    private Timer validationTimer;
+    private Timer journalTimer;
+    private Timer matchingTimer;
+    private Timer settlementTimer;
+
+    @PostConstruct
+    public void registerMeters() {
+        validationTimer = phaseTimer("validation");
+        journalTimer = phaseTimer("journal");
+        matchingTimer = phaseTimer("matching");
+        settlementTimer = phaseTimer("settlement");
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder(PHASE_TIMER)
+                .description("Time spent in each phase of accepting an order")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    public OrderView placeOrder(OrderRequest request) {
+        return placeOrder(request, false);
+    }
+
+    /**
+     * Places the order, timing it as a whole under {@code trading.order.place} (tagged with the
+     * side, the mode and whether it was accepted) and each phase under {@code trading.order.phase}.
+     * Writing to the database happens later, in the write-behind pipeline, and is timed there.
+     * In async mode the order is returned PENDING as soon as it is reserved and journaled;
+     * matching finishes on the commodity's matching thread and settlement on its settlement
+     * thread, and the outcome is
+     * published through {@link #getOrderStatus} and {@link #streamOrderUpdates}. If matching or
+     * settlement fails, in either mode, the order is cancelled and its reservation released.
+     */
+    public OrderView placeOrder(OrderRequest request, boolean async) {
+        long started = System.nanoTime();
+        OrderType orderType = null;
+        boolean accepted = false;
+        try {
+            long userId = authService.getCurrentUserId();
+            orderType = OrderType.valueOf(request.getOrderType().toUpperCase());
+            OrderType side = orderType;
+            Commodity commodity = commodityCatalog.get(request.getCommodityId());
+            if (commodity == null) {
+                throw new RuntimeException("Commodity not found");
             }
-        } else if (orderType == OrderType.SELL) {
-            Portfolio portfolio = portfolioRepository.findByUserAndCommodity(user, commodity)
-                    .orElseThrow(() -> new RuntimeException("No holdings found for this commodity"));
 
-            if (portfolio.getQuantity().compareTo(request.getQuantity()) < 0) {
-                throw new RuntimeException("Insufficient quantity to sell");
+            // Normalise to the engine's fixed-point scales so reservations match what the book sees
+            long priceTicks = PriceScale.toTicks(request.getPrice());
+            long quantityLots = PriceScale.toLots(request.getQuantity());
+
+            // Reserve in memory under the account lock; the database catches up through the write-behind pipeline
+            OpenOrder openOrder = accountLocks.withLock(userId,
+                    () -> reserve(userId, commodity.getId(), side, priceTicks, quantityLots, started));
+
+            long matching = System.nanoTime();
+            CompletableFuture<MatchResult> matched = matchingEngine.submit(openOrder.getOrderId(), userId,
+                    commodity.getId(), orderType, priceTicks, quantityLots);
+            meterRegistry.counter("trading.orders", MetricsConfig.COMMODITY_TAG, commodity.getSymbol(),
+                    "side", orderType.name()).increment();
+
+            if (async) {
+                matched.whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        matchingFailed(openOrder, error);
+                        return;
+                    }
+                    try {
+                        settle(openOrder, result, matching);
+                    } catch (RuntimeException e) {
+                        // Logged by settle, which has withdrawn the order; nothing waits on this future
+                    }
+                }, settlementExecutor.forCommodity(commodity.getId()));
+                accepted = true;
+                return new OrderView(openOrder.getOrderId(), commodity.getId(), commodity.getSymbol(),
+                        commodity.getName(), orderType, PriceScale.fromLots(quantityLots),
+                        PriceScale.fromTicks(priceTicks), PriceScale.fromLots(0), OrderStatus.PENDING,
+                        LocalDateTime.now());
+            }
+
+            MatchResult result;
+            try {
+                result = matched.join();
+            } catch (CompletionException e) {
+                matchingFailed(openOrder, e.getCause());
+                throw e;
             }
+            settle(openOrder, result, matching);
+            accepted = true;
+            return new OrderView(openOrder.getOrderId(), commodity.getId(), commodity.getSymbol(), commodity.getName(),
+                    orderType, PriceScale.fromLots(quantityLots), PriceScale.fromTicks(priceTicks),
+                    PriceScale.fromLots(quantityLots - result.getRemainingLots()),
+                    result.isFullyFilled() ? OrderStatus.COMPLETED : OrderStatus.PENDING, LocalDateTime.now());
+        } finally {
+            meterRegistry.timer(ORDER_TIMER, "side", orderType == null ? "unknown" : orderType.name(),
+                    "mode", async ? "async" : "sync", "outcome", accepted ? "accepted" : "rejected")
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
+    }
+
+    private void settle(OpenOrder openOrder, MatchResult result, long matching) {
+        long settlement = System.nanoTime();
+        matchingTimer.record(settlement - matching, TimeUnit.NANOSECONDS);
+        try {
+            tradeSettlementService.settleSubmitted(openOrder, result);
+        } catch (RuntimeException e) {
+            logger.error("Settlement failed for order {}", openOrder.getOrderId(), e);
+            throw e;
+        } finally {
+            settlementTimer.record(System.nanoTime() - settlement, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The book threw before resting the order, so none of it was filled: cancel all of it and
+     * release its reservation.
+     */
+    private void matchingFailed(OpenOrder openOrder, Throwable error) {
+        logger.error("Matching failed for order {}, cancelling it", openOrder.getOrderId(), error);
+        tradeSettlementService.withdraw(openOrder, openOrder.getQuantityLots());
+    }
+
+    private OpenOrder reserve(long userId, long commodityId, OrderType orderType, long priceTicks, long quantityLots,
+                              long started) {
+        Account account = accountBook.get(userId);
+        long now = System.currentTimeMillis();
 
-        // Create order
-        Order order = new Order();
-        order.setUser(user);
-        order.setCommodity(commodity);
-        order.setOrderType(orderType);
-        order.setQuantity(request.getQuantity());
-        order.setPrice(request.getPrice());
-        order.setStatus(OrderStatus.COMPLETED);
-        order.setCreatedAt(LocalDateTime.now());
-        order = orderRepository.save(order);
-
-        // Update user balance and portfolio
+        // Validate order and reserve funds or holdings until it fills or is cancelled
+        JournalEvent reserved;
         if (orderType == OrderType.BUY) {
-            user.setBalance(user.getBalance().subtract(totalCost));
-            userRepository.save(user);
-
-            // Update or create portfolio entry
-            Portfolio portfolio = portfolioRepository.findByUserAndCommodity(user, commodity)
-                    .orElse(new Portfolio());
-
-            if (portfolio.getId() == null) {
-                portfolio.setUser(user);
-                portfolio.setCommodity(commodity);
-                portfolio.setQuantity(request.getQuantity());
-                portfolio.setAveragePrice(request.getPrice());
-            } else {
-                BigDecimal totalValue = portfolio.getQuantity().multiply(portfolio.getAveragePrice())
-                        .add(totalCost);
-                BigDecimal newQuantity = portfolio.getQuantity().add(request.getQuantity());
-                portfolio.setQuantity(newQuantity);
-                portfolio.setAveragePrice(totalValue.divide(newQuantity, 2, BigDecimal.ROUND_HALF_UP));
+            long totalCost = PriceScale.notionalMicros(priceTicks, quantityLots);
+            if (account.getBalanceMicros() < totalCost) {
+                throw new RuntimeException("Insufficient balance");
             }
-            portfolioRepository.save(portfolio);
-
-            // Create transaction
-            Transaction transaction = new Transaction();
-            transaction.setUser(user);
-            transaction.setType("BUY");
-            transaction.setAmount(totalCost.negate());
-            transaction.setDescription("Bought " + request.getQuantity() + " " + commodity.getName());
-            transaction.setCreatedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
-
-        } else { // SELL
-            user.setBalance(user.getBalance().add(totalCost));
-            userRepository.save(user);
-
-            // Update portfolio
-            Portfolio portfolio = portfolioRepository.findByUserAndCommodity(user, commodity)
-                    .orElseThrow(() -> new RuntimeException("No holdings found"));
-
-            portfolio.setQuantity(portfolio.getQuantity().subtract(request.getQuantity()));
-
-            if (portfolio.getQuantity().compareTo(BigDecimal.ZERO) == 0) {
-                portfolioRepository.delete(portfolio);
-            } else {
-                portfolioRepository.save(portfolio);
+            account.debit(totalCost);
+            reserved = new BalanceChangedEvent(now, userId, account.getBalanceMicros());
+        } else {
+            Position position = account.getPosition(commodityId);
+            if (position == null) {
+                throw new RuntimeException("No holdings found for this commodity");
             }
-
-            // Create transaction
-            Transaction transaction = new Transaction();
-            transaction.setUser(user);
-            transaction.setType("SELL");
-            transaction.setAmount(totalCost);
-            transaction.setDescription("Sold " + request.getQuantity() + " " + commodity.getName());
-            transaction.setCreatedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
+            if (position.getQuantityLots() < quantityLots) {
+                throw new RuntimeException("Insufficient quantity to sell");
+            }
+            position.reserve(quantityLots);
+            reserved = new PositionChangedEvent(now, userId, commodityId,
+                    position.getQuantityLots(), position.getAveragePriceTicks());
+            valuationEngine.onPosition(userId, commodityId, position.getQuantityLots(),
+                    position.getAveragePriceTicks(), position.getVersion());
         }
 
+        OpenOrder order = new OpenOrder(orderIdSequence.next(), userId, commodityId, orderType,
+                priceTicks, quantityLots, 0);
+        openOrders.add(order);
+        orderTracker.update(order);
+        long journaling = System.nanoTime();
+        validationTimer.record(journaling - started, TimeUnit.NANOSECONDS);
+        writeBehindPipeline.publish(
+                new OrderAcceptedEvent(now, order.getOrderId(), userId, commodityId, orderType, priceTicks, quantityLots),
+                reserved);
+        journalTimer.record(System.nanoTime() - journaling, TimeUnit.NANOSECONDS);
         return order;
     }
 
-    public List<Order> getUserOrders() {
-        User user = authService.getCurrentUser();
-        return orderRepository.findByUserOrderByCreatedAtDesc(user);
+    /**
+     * Rebuilds the in-memory books from orders still pending in the database. Orders are
+     * replayed in arrival order, so fills that were matched but never journaled before a
+     * shutdown are matched and settled again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreOrderBooks() {
+        List<Order> pending = orderRepository.findByStatusOrderByIdAsc(OrderStatus.PENDING);
+        for (Order order : pending) {
+            long quantityLots = PriceScale.toLots(order.getQuantity());
+            long filledLots = order.getFilledQuantity() == null ? 0 : PriceScale.toLots(order.getFilledQuantity());
+            OpenOrder openOrder = new OpenOrder(order.getId(), order.getUser().getId(), order.getCommodity().getId(),
+                    order.getOrderType(), PriceScale.toTicks(order.getPrice()), quantityLots, filledLots);
+            openOrders.add(openOrder);
+
+            MatchResult result = matchingEngine.submit(openOrder.getOrderId(), openOrder.getUserId(),
+                    openOrder.getCommodityId(), openOrder.getSide(), openOrder.getPriceTicks(),
+                    quantityLots - filledLots).join();
+            tradeSettlementService.settleSubmitted(openOrder, result);
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Restored {} pending orders into the order books", pending.size());
+        }
     }
 
-    public List<Portfolio> getUserPortfolio() {
-        User user = authService.getCurrentUser();
-        return portfolioRepository.findByUser(user);
+    /**
+     * One page of the user's orders, newest first, continuing after {@code cursor} if given.
+     */
+    public OrderPage getUserOrders(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long userId = authService.getCurrentUserId();
+        List<OrderView> orders;
+        if (cursor == null) {
+            orders = orderRepository.findViewsByUserId(userId, Limit.of(limit + 1));
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            orders = orderRepository.findViewsBefore(userId, after.getCreatedAt(), after.getId(), Limit.of(limit + 1));
+        }
+
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        orders = orders.subList(0, limit);
+        OrderView last = orders.get(limit - 1);
+        return new OrderPage(orders, new HistoryCursor(last.getCreatedAt(), last.getId()).encode());
     }
 
-    @Transactional
-    public void cancelOrder(Long orderId) {
-        User user = authService.getCurrentUser();
-        Order order = orderRepository.findById(orderId)
+    public List<PortfolioView> getUserPortfolio() {
+        return portfolioRepository.findHeldViewsByUserId(authService.getCurrentUserId());
+    }
+
+    public PortfolioValuation getPortfolioValuation() {
+        return valuationEngine.getValuation(authService.getCurrentUserId());
+    }
+
+    public SseEmitter streamPortfolioValuation() {
+        return valuationNotifier.subscribe(authService.getCurrentUserId());
+    }
+
+    /**
+     * The latest state of one of the user's orders. Orders finished more than
+     * {@code trading.orders.status-retention-ms} ago are read back from the database.
+     */
+    public OrderUpdate getOrderStatus(Long orderId) {
+        long userId = authService.getCurrentUserId();
+        OrderUpdate update = orderTracker.get(userId, orderId);
+        if (update != null) {
+            return update;
+        }
+
+        Order stored = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (stored.getUser().getId() != userId) {
+            throw new RuntimeException("Unauthorized to view this order");
+        }
+        BigDecimal filled = stored.getFilledQuantity() == null ? BigDecimal.ZERO : stored.getFilledQuantity();
+        OrderState state = switch (stored.getStatus()) {
+            case PENDING -> filled.signum() > 0 ? OrderState.PARTIALLY_FILLED : OrderState.ACCEPTED;
+            case COMPLETED -> OrderState.FILLED;
+            case CANCELLED -> OrderState.CANCELLED;
+        };
+        return new OrderUpdate(stored.getId(), stored.getCommodity().getId(), stored.getOrderType(), state,
+                stored.getQuantity(), stored.getPrice(), filled, 0L, stored.getCreatedAt());
+    }
+
+    public SseEmitter streamOrderUpdates() {
+        return orderNotifier.subscribe(authService.getCurrentUserId());
+    }
+
+    public void cancelOrder(Long orderId) {
+        long userId = authService.getCurrentUserId();
+        OpenOrder order = openOrders.get(orderId);
+
+        if (order == null) {
+            // Not live any more; report against the stored order
+            Order stored = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (stored.getUser().getId() != userId) {
+                throw new RuntimeException("Unauthorized to cancel this order");
+            }
+            throw new RuntimeException("Only pending orders can be cancelled");
+        }
 
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (order.getUserId() != userId) {
             throw new RuntimeException("Unauthorized to cancel this order");
         }
 
-        if (order.getStatus() != OrderStatus.PENDING) {
+        long remainingLots = matchingEngine.cancel(order.getCommodityId(), orderId).join();
+        if (remainingLots == 0) {
             throw new RuntimeException("Only pending orders can be cancelled");
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        tradeSettlementService.settleCancel(order, remainingLots);
     }
 }
@@ -1,24 +1,165 @@
 package com.commodityx.backend.service;
 
-import com.commodityx.backend.model.Transaction;
-import com.commodityx.backend.model.User;
+import com.commodityx.backend.dto.TransactionPage;
+import com.commodityx.backend.dto.TransactionView;
 import com.commodityx.backend.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 @Service
 public class TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SELECT_LEDGER = "SELECT id, type, amount, description, created_at "
+            + "FROM transactions WHERE user_id = ? ORDER BY created_at, id";
+
     @Autowired
     private TransactionRepository transactionRepository;
 
     @Autowired
     private AuthService authService;
 
-    public List<Transaction> getUserTransactions() {
-        User user = authService.getCurrentUser();
-        return transactionRepository.findByUserOrderByCreatedAtDesc(user);
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${trading.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * One page of the user's transactions, newest first, continuing after {@code cursor} if given.
+     */
+    public TransactionPage getUserTransactions(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long userId = authService.getCurrentUserId();
+        List<TransactionView> transactions;
+        if (cursor == null) {
+            transactions = transactionRepository.findViewsByUserId(userId, Limit.of(limit + 1));
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            transactions = transactionRepository.findViewsBefore(userId, after.getCreatedAt(), after.getId(),
+                    Limit.of(limit + 1));
+        }
+
+        if (transactions.size() <= limit) {
+            return new TransactionPage(transactions, null);
+        }
+        transactions = transactions.subList(0, limit);
+        TransactionView last = transactions.get(limit - 1);
+        return new TransactionPage(transactions, new HistoryCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * The user's whole ledger, oldest first, as CSV or NDJSON. Rows go from a forward-only
+     * cursor straight to the response, so memory stays flat however long the ledger is.
+     */
+    public StreamingResponseBody exportUserTransactions(String format) {
+        if (!"csv".equals(format) && !"ndjson".equals(format)) {
+            throw new RuntimeException("Invalid format: " + format + " (expected csv or ndjson)");
+        }
+        long userId = authService.getCurrentUserId();
+        return out -> {
+            if ("csv".equals(format)) {
+                writeCsv(userId, out);
+            } else {
+                writeNdjson(userId, out);
+            }
+        };
+    }
+
+    private void writeCsv(long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write("id,type,amount,description,created_at\r\n");
+        streamLedger(userId, rs -> {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writer.write(csv(rs.getString(2)));
+            writer.write(',');
+            writer.write(rs.getBigDecimal(3).toPlainString());
+            writer.write(',');
+            writer.write(csv(rs.getString(4)));
+            writer.write(',');
+            writer.write(rs.getTimestamp(5) == null ? "" : rs.getTimestamp(5).toLocalDateTime().toString());
+            writer.write("\r\n");
+        });
+        writer.flush();
+    }
+
+    private void writeNdjson(long userId, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out, BUFFER_SIZE));
+        json.setRootValueSeparator(new SerializedString("\n"));
+        streamLedger(userId, rs -> {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong(1));
+            json.writeStringField("type", rs.getString(2));
+            json.writeNumberField("amount", rs.getBigDecimal(3));
+            json.writeStringField("description", rs.getString(4));
+            json.writeStringField("createdAt",
+                    rs.getTimestamp(5) == null ? null : rs.getTimestamp(5).toLocalDateTime().toString());
+            json.writeEndObject();
+        });
+        json.writeRaw('\n');
+        json.flush();
+    }
+
+    private void streamLedger(long userId, LedgerRowWriter rowWriter) throws IOException {
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_LEDGER,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, userId);
+                return statement;
+            }, rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // The client went away; stop reading rows
+            throw e.getCause();
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface LedgerRowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
     }
 }
@@ -1,5 +1,6 @@
 package com.commodityx.backend.service;
 
+import com.commodityx.backend.dto.WatchlistView;
 import com.commodityx.backend.model.Commodity;
 import com.commodityx.backend.model.User;
 import com.commodityx.backend.model.Watchlist;
@@ -24,13 +25,12 @@ public class WatchlistService {
     @Autowired
     private AuthService authService;
 
-    public List<Watchlist> getUserWatchlist() {
-        User user = authService.getCurrentUser();
-        return watchlistRepository.findByUser(user);
+    public List<WatchlistView> getUserWatchlist() {
+        return watchlistRepository.findViewsByUserId(authService.getCurrentUserId());
     }
 
     @Transactional
-    public Watchlist addToWatchlist(Long commodityId) {
+    public WatchlistView addToWatchlist(Long commodityId) {
         User user = authService.getCurrentUser();
         Commodity commodity = commodityRepository.findById(commodityId)
                 .orElseThrow(() -> new RuntimeException("Commodity not found"));
@@ -44,7 +44,7 @@ public class WatchlistService {
         watchlist.setCommodity(commodity);
         watchlist.setAddedAt(LocalDateTime.now());
 
-        return watchlistRepository.save(watchlist);
+        return WatchlistView.of(watchlistRepository.save(watchlist));
     }
 
     @Transactional
@@ -0,0 +1,69 @@
+package com.commodityx.backend.stream;
+
+import java.math.BigDecimal;
+
+/**
+ * Changed market fields of one commodity, held as fixed-point longs with a bit mask of the
+ * fields present. A delta is shared by every subscriber of the symbol and serializes to JSON
+ * once; when a subscriber falls behind, its pending delta is merged with the next one instead
+ * of queueing both.
+ */
+public final class PriceDelta {
+
+    public static final int PRICE = 0;
+    public static final int CHANGE = 1;
+    public static final int HIGH = 2;
+    public static final int LOW = 3;
+    public static final int VOLUME = 4;
+    static final int FIELD_COUNT = 5;
+    static final int ALL_FIELDS = (1 << FIELD_COUNT) - 1;
+
+    private static final String[] KEYS = {"p", "c", "h", "l", "v"};
+    private static final int[] SCALES = {2, 2, 2, 2, 4};
+
+    private final long commodityId;
+    private final String symbol;
+    private final int mask;
+    private final long[] values;
+    private String json;
+
+    PriceDelta(long commodityId, String symbol, int mask, long[] values) {
+        this.commodityId = commodityId;
+        this.symbol = symbol;
+        this.mask = mask;
+        this.values = values;
+    }
+
+    public long getCommodityId() {
+        return commodityId;
+    }
+
+    static PriceDelta merge(PriceDelta older, PriceDelta newer) {
+        long[] values = older.values.clone();
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if ((newer.mask & (1 << field)) != 0) {
+                values[field] = newer.values[field];
+            }
+        }
+        return new PriceDelta(newer.commodityId, newer.symbol, older.mask | newer.mask, values);
+    }
+
+    /**
+     * Compact form, e.g. {@code {"id":1,"s":"GC=F","p":1985.50,"v":1250.0000}}; absent fields did not change.
+     */
+    String toJson() {
+        if (json == null) {
+            StringBuilder builder = new StringBuilder(96)
+                    .append("{\"id\":").append(commodityId)
+                    .append(",\"s\":\"").append(symbol).append('"');
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                if ((mask & (1 << field)) != 0) {
+                    builder.append(",\"").append(KEYS[field]).append("\":")
+                            .append(BigDecimal.valueOf(values[field], SCALES[field]).toPlainString());
+                }
+            }
+            json = builder.append('}').toString();
+        }
+        return json;
+    }
+}
@@ -0,0 +1,264 @@
+package com.commodityx.backend.stream;
+
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.model.Commodity;
+import com.commodityx.backend.repository.CommodityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes commodity prices to SSE subscribers. Producers publish the latest values per symbol
+ * as often as they like; once per interval each changed symbol becomes one delta holding only
+ * the fields that moved, which is fanned out to the symbol's subscribers. Writes happen on a
+ * small sender pool, see {@link StreamSenders}. A subscriber that is still busy keeps a single
+ * merged delta per symbol, and one stuck for too long is disconnected, so slow clients never
+ * hold unbounded buffers.
+ */
+@Component
+public class PriceStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceStream.class);
+
+    @Autowired
+    private CommodityRepository commodityRepository;
+
+    @Value("${trading.stream.interval-ms:250}")
+    private long intervalMs;
+
+    @Value("${trading.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${trading.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${trading.stream.sender-threads:8}")
+    private int senderThreads;
+
+    @Value("${trading.stream.slow-consumer-timeout-ms:10000}")
+    private long slowConsumerTimeoutMs;
+
+    @Value("${trading.stream.max-abandoned-senders:32}")
+    private int maxAbandonedSenders;
+
+    private final ConcurrentMap<Long, SymbolState> states = new ConcurrentHashMap<>();
+    private final Set<PriceSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong mergedUpdates = new AtomicLong();
+    private ScheduledExecutorService ticker;
+    private StreamSenders<PriceSubscriber> senders;
+
+    @PostConstruct
+    public void start() {
+        for (Commodity commodity : commodityRepository.findAll()) {
+            states.put(commodity.getId(), new SymbolState(commodity));
+        }
+
+        senders = new StreamSenders<>("price-stream", senderThreads, maxAbandonedSenders, slowConsumerTimeoutMs,
+                this::remove);
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(senders::evictBlocked, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        senders.shutdown();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Records the latest market values of a commodity. Only the last values published within an
+     * interval are sent. Prices are in ticks, the 24h change in hundredths of a percent and the
+     * volume in lots.
+     */
+    public void publish(long commodityId, long priceTicks, long change24h, long high24hTicks,
+                        long low24hTicks, long volume24hLots) {
+        SymbolState state = states.get(commodityId);
+        if (state == null) {
+            Commodity commodity = commodityRepository.findById(commodityId).orElse(null);
+            if (commodity == null) {
+                return;
+            }
+            state = states.computeIfAbsent(commodityId, id -> new SymbolState(commodity));
+        }
+        synchronized (state) {
+            state.latest[PriceDelta.PRICE] = priceTicks;
+            state.latest[PriceDelta.CHANGE] = change24h;
+            state.latest[PriceDelta.HIGH] = high24hTicks;
+            state.latest[PriceDelta.LOW] = low24hTicks;
+            state.latest[PriceDelta.VOLUME] = volume24hLots;
+            state.changed = true;
+        }
+    }
+
+    /**
+     * Opens a stream for the given symbols, or for every commodity when none are given. The
+     * first event carries a full snapshot; later events carry deltas.
+     */
+    public SseEmitter subscribe(List<String> symbols) {
+        // Reserve the slot first so concurrent subscribers cannot overshoot the cap
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("Too many price stream subscribers");
+        }
+
+        Set<Long> commodityIds = null;
+        try {
+            if (symbols != null && !symbols.isEmpty()) {
+                commodityIds = new HashSet<>();
+                for (String symbol : symbols) {
+                    commodityIds.add(states.values().stream()
+                            .filter(state -> state.symbol.equalsIgnoreCase(symbol.trim()))
+                            .findFirst()
+                            .orElseThrow(() -> new RuntimeException("Commodity not found with symbol: " + symbol))
+                            .commodityId);
+                }
+            }
+        } catch (RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+
+        SseEmitter emitter = new SseEmitter(0L);
+        PriceSubscriber subscriber = new PriceSubscriber(emitter, commodityIds);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        for (SymbolState state : states.values()) {
+            if (wants(subscriber, state.commodityId)) {
+                synchronized (state) {
+                    subscriber.offer(state.snapshot());
+                }
+            }
+        }
+        senders.schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getMergedUpdates() {
+        return mergedUpdates.get();
+    }
+
+    public long getEvictedSubscribers() {
+        return senders.getEvictedSubscribers();
+    }
+
+    private void flush() {
+        try {
+            for (SymbolState state : states.values()) {
+                PriceDelta delta;
+                synchronized (state) {
+                    delta = state.takeDelta();
+                }
+                if (delta == null) {
+                    continue;
+                }
+                for (PriceSubscriber subscriber : subscribers) {
+                    if (wants(subscriber, state.commodityId) && subscriber.offer(delta)) {
+                        mergedUpdates.incrementAndGet();
+                    }
+                }
+            }
+            for (PriceSubscriber subscriber : subscribers) {
+                if (!subscriber.pending.isEmpty()) {
+                    senders.schedule(subscriber);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Price stream flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        for (PriceSubscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            senders.schedule(subscriber);
+        }
+    }
+
+    private void remove(PriceSubscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static boolean wants(PriceSubscriber subscriber, long commodityId) {
+        return subscriber.commodityIds == null || subscriber.commodityIds.contains(commodityId);
+    }
+
+    /**
+     * Latest and last-sent values of one commodity. Guarded by its own monitor.
+     */
+    private static final class SymbolState {
+        private final long commodityId;
+        private final String symbol;
+        private final long[] latest = new long[PriceDelta.FIELD_COUNT];
+        private final long[] published = new long[PriceDelta.FIELD_COUNT];
+        private boolean changed;
+
+        private SymbolState(Commodity commodity) {
+            this.commodityId = commodity.getId();
+            this.symbol = commodity.getSymbol();
+            latest[PriceDelta.PRICE] = ticks(commodity.getCurrentPrice());
+            latest[PriceDelta.CHANGE] = ticks(commodity.getPriceChange24h());
+            latest[PriceDelta.HIGH] = ticks(commodity.getHigh24h());
+            latest[PriceDelta.LOW] = ticks(commodity.getLow24h());
+            latest[PriceDelta.VOLUME] = commodity.getVolume24h() == null ? 0 : PriceScale.toLots(commodity.getVolume24h());
+            System.arraycopy(latest, 0, published, 0, latest.length);
+        }
+
+        private PriceDelta takeDelta() {
+            if (!changed) {
+                return null;
+            }
+            changed = false;
+            int mask = 0;
+            for (int field = 0; field < PriceDelta.FIELD_COUNT; field++) {
+                if (latest[field] != published[field]) {
+                    mask |= 1 << field;
+                    published[field] = latest[field];
+                }
+            }
+            return mask == 0 ? null : new PriceDelta(commodityId, symbol, mask, published.clone());
+        }
+
+        private PriceDelta snapshot() {
+            return new PriceDelta(commodityId, symbol, PriceDelta.ALL_FIELDS, published.clone());
+        }
+
+        private static long ticks(BigDecimal value) {
+            return value == null ? 0 : PriceScale.toTicks(value);
+        }
+    }
+}
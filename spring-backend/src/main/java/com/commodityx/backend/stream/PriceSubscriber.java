@@ -0,0 +1,56 @@
+package com.commodityx.backend.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One price stream connection. Pending updates are held as at most one delta per symbol, so a
+ * slow client costs a bounded amount of memory and simply receives fewer, merged updates.
+ */
+class PriceSubscriber extends StreamSubscriber {
+
+    final Set<Long> commodityIds;
+    final ConcurrentMap<Long, PriceDelta> pending = new ConcurrentHashMap<>();
+
+    PriceSubscriber(SseEmitter emitter, Set<Long> commodityIds) {
+        super(emitter);
+        this.commodityIds = commodityIds;
+    }
+
+    /**
+     * Queues a delta, returning true if it replaced one the client had not received yet.
+     */
+    boolean offer(PriceDelta delta) {
+        boolean[] merged = new boolean[1];
+        pending.merge(delta.getCommodityId(), delta, (older, newer) -> {
+            merged[0] = true;
+            return PriceDelta.merge(older, newer);
+        });
+        return merged[0];
+    }
+
+    @Override
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Sends every pending delta as one "prices" event holding a JSON array.
+     */
+    @Override
+    void sendPending() throws IOException {
+        StringBuilder json = new StringBuilder(pending.size() * 64).append('[');
+        for (Long commodityId : pending.keySet()) {
+            PriceDelta delta = pending.remove(commodityId);
+            if (delta != null) {
+                json.append(json.length() > 1 ? "," : "").append(delta.toJson());
+            }
+        }
+        emitter.send(SseEmitter.event().name("prices").data(json.append(']').toString(), MediaType.APPLICATION_JSON));
+    }
+}
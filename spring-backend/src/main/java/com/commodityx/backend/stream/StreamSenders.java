@@ -0,0 +1,143 @@
+package com.commodityx.backend.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The sender pool behind the SSE streams. Subscribers are scheduled rather than written to
+ * directly, so producers never block on a client. A subscriber whose send is blocking is
+ * skipped until it returns; one blocked for longer than the slow consumer timeout is
+ * disconnected, and the pool gets an extra thread for each send it gave up on until that send
+ * returns, so blocked writes cannot starve the other subscribers. At most
+ * {@code maxAbandonedSenders} extra threads are added; past that, blocked subscribers are still
+ * disconnected but their threads are not replaced until their sends return.
+ */
+final class StreamSenders<S extends StreamSubscriber> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamSenders.class);
+    private static final long ABANDONED = Long.MIN_VALUE;
+
+    private final int threads;
+    private final int maxAbandonedSenders;
+    private final long slowConsumerTimeoutNanos;
+    private final Consumer<S> remove;
+    private final ThreadPoolExecutor pool;
+    private final Set<S> sending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger abandonedSends = new AtomicInteger();
+    private final AtomicLong evictedSubscribers = new AtomicLong();
+
+    /**
+     * @param remove unregisters a subscriber whose client went away or was evicted
+     */
+    StreamSenders(String name, int threads, int maxAbandonedSenders, long slowConsumerTimeoutMs,
+                  Consumer<S> remove) {
+        this.threads = threads;
+        this.maxAbandonedSenders = maxAbandonedSenders;
+        this.slowConsumerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(slowConsumerTimeoutMs);
+        this.remove = remove;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues a send unless one is already queued or running for the subscriber.
+     */
+    void schedule(S subscriber) {
+        if (!subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            pool.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Disconnects subscribers whose send has been blocking for longer than the slow consumer
+     * timeout, whether or not anything new was published for them.
+     */
+    void evictBlocked() {
+        try {
+            long now = System.nanoTime();
+            for (S subscriber : sending) {
+                long started = subscriber.sendStartedNanos.get();
+                if (started == 0 || started == ABANDONED || now - started <= slowConsumerTimeoutNanos) {
+                    continue;
+                }
+                if (subscriber.sendStartedNanos.compareAndSet(started, ABANDONED)) {
+                    if (abandonedSends.incrementAndGet() > maxAbandonedSenders) {
+                        logger.warn("{} stream sends are blocked, over the cap of {} extra sender threads",
+                                abandonedSends.get(), maxAbandonedSenders);
+                    }
+                    resize();
+                    evictedSubscribers.incrementAndGet();
+                    remove.accept(subscriber);
+                    subscriber.emitter.complete();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Stream eviction failed: {}", e.getMessage());
+        }
+    }
+
+    long getEvictedSubscribers() {
+        return evictedSubscribers.get();
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private synchronized void resize() {
+        int size = threads + Math.min(abandonedSends.get(), maxAbandonedSenders);
+        if (size > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    private void send(S subscriber) {
+        subscriber.sendStartedNanos.set(System.nanoTime());
+        sending.add(subscriber);
+        try {
+            if (subscriber.closed) {
+                return;
+            }
+            if (subscriber.hasPending()) {
+                subscriber.heartbeatDue = false;
+                subscriber.sendPending();
+            } else if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping stream: {}", e.getMessage());
+            remove.accept(subscriber);
+        } finally {
+            sending.remove(subscriber);
+            if (subscriber.sendStartedNanos.getAndSet(0) == ABANDONED) {
+                abandonedSends.decrementAndGet();
+                resize();
+            }
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.closed && subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.commodityx.backend.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One SSE connection served by {@link StreamSenders}. At most one send per subscriber is
+ * queued or running at a time, so its events go out in order and a client that stops reading
+ * ties up a single sender thread at most.
+ */
+abstract class StreamSubscriber {
+
+    final SseEmitter emitter;
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * When the send in progress started, or 0 when none is; {@link StreamSenders} swaps in a
+     * marker once it gives up on a send that is blocking.
+     */
+    final AtomicLong sendStartedNanos = new AtomicLong();
+    volatile boolean heartbeatDue;
+    volatile boolean closed;
+
+    StreamSubscriber(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    abstract boolean hasPending();
+
+    /**
+     * Writes everything queued for this client.
+     */
+    abstract void sendPending() throws IOException;
+}
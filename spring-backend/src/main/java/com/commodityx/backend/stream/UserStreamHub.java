@@ -0,0 +1,90 @@
+package com.commodityx.backend.stream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user SSE streams for order updates, alerts and valuations. Each notifier registers a
+ * topic holding its own streams per user; all topics share one sender pool, heartbeat and
+ * slow-consumer eviction, scheduled the same way as {@link PriceStream}. Publishing only
+ * queues the event on the user's streams, so a client that stops reading is disconnected
+ * without holding up delivery to anybody else.
+ */
+@Component
+public class UserStreamHub {
+
+    @Value("${trading.stream.interval-ms:250}")
+    private long intervalMs;
+
+    @Value("${trading.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${trading.stream.user-sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${trading.stream.slow-consumer-timeout-ms:10000}")
+    private long slowConsumerTimeoutMs;
+
+    @Value("${trading.stream.max-abandoned-senders:32}")
+    private int maxAbandonedSenders;
+
+    private final List<UserStreams> topics = new CopyOnWriteArrayList<>();
+    private StreamSenders<UserSubscriber> senders;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void start() {
+        senders = new StreamSenders<>("user-stream", senderThreads, maxAbandonedSenders, slowConsumerTimeoutMs,
+                subscriber -> subscriber.streams.remove(subscriber));
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-stream-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(senders::evictBlocked, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        senders.shutdown();
+        topics.forEach(UserStreams::completeAll);
+    }
+
+    /**
+     * Registers a topic whose events are sent under {@code name}. Each stream queues up to
+     * {@code queueCapacity} unsent events and drops the rest, or with {@code latestOnly} keeps
+     * just the newest one.
+     */
+    public UserStreams topic(String name, int maxStreamsPerUser, int queueCapacity, boolean latestOnly) {
+        UserStreams streams = new UserStreams(this, name, maxStreamsPerUser, queueCapacity, latestOnly);
+        topics.add(streams);
+        return streams;
+    }
+
+    public long getEvictedStreams() {
+        return senders.getEvictedSubscribers();
+    }
+
+    void schedule(UserSubscriber subscriber) {
+        senders.schedule(subscriber);
+    }
+
+    private void heartbeat() {
+        for (UserStreams streams : topics) {
+            streams.forEach(subscriber -> {
+                subscriber.heartbeatDue = true;
+                senders.schedule(subscriber);
+            });
+        }
+    }
+}
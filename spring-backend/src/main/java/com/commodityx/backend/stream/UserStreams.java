@@ -0,0 +1,111 @@
+package com.commodityx.backend.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * The streams of one {@link UserStreamHub} topic. A user may hold a few, e.g. one per device,
+ * and every event published for the user goes to each of them.
+ */
+public final class UserStreams {
+
+    private final UserStreamHub hub;
+    private final String name;
+    private final int maxStreamsPerUser;
+    final int queueCapacity;
+    final boolean latestOnly;
+    private final ConcurrentMap<Long, Set<UserSubscriber>> streams = new ConcurrentHashMap<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile LongConsumer lastClosed = userId -> { };
+
+    UserStreams(UserStreamHub hub, String name, int maxStreamsPerUser, int queueCapacity, boolean latestOnly) {
+        this.hub = hub;
+        this.name = name;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.queueCapacity = queueCapacity;
+        this.latestOnly = latestOnly;
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        UserSubscriber subscriber = new UserSubscriber(emitter, userId, this);
+        streams.compute(userId, (id, subscribers) -> {
+            if (subscribers == null) {
+                subscribers = ConcurrentHashMap.newKeySet();
+            } else if (subscribers.size() >= maxStreamsPerUser) {
+                throw new RuntimeException("Too many " + name + " streams open for this user");
+            }
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Queues an event on each of the user's streams. Never blocks, so it may be called under
+     * locks; an event that finds a stream's queue full is dropped and counted.
+     */
+    public void publish(long userId, Object data) {
+        Set<UserSubscriber> subscribers = streams.get(userId);
+        if (subscribers == null) {
+            return;
+        }
+        for (UserSubscriber subscriber : subscribers) {
+            if (!subscriber.offer(SseEmitter.event().name(name).data(data))) {
+                droppedEvents.incrementAndGet();
+            }
+            hub.schedule(subscriber);
+        }
+    }
+
+    /**
+     * Called with the user's id when their last stream of this topic closes.
+     */
+    public void onLastClosed(LongConsumer callback) {
+        this.lastClosed = callback;
+    }
+
+    public boolean hasStreams(long userId) {
+        return streams.containsKey(userId);
+    }
+
+    public int getStreamCount() {
+        return streams.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    void forEach(Consumer<UserSubscriber> action) {
+        streams.values().forEach(subscribers -> subscribers.forEach(action));
+    }
+
+    void remove(UserSubscriber subscriber) {
+        subscriber.closed = true;
+        streams.computeIfPresent(subscriber.userId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            if (subscribers.isEmpty()) {
+                lastClosed.accept(id);
+                return null;
+            }
+            return subscribers;
+        });
+    }
+
+    void completeAll() {
+        forEach(subscriber -> subscriber.emitter.complete());
+    }
+}
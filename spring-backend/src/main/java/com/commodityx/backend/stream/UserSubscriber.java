@@ -0,0 +1,65 @@
+package com.commodityx.backend.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One per-user stream of a {@link UserStreams} topic, holding the events it has not been sent
+ * yet: a bounded queue, or only the newest event for topics that publish whole states.
+ */
+final class UserSubscriber extends StreamSubscriber {
+
+    final long userId;
+    final UserStreams streams;
+    private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicReference<SseEmitter.SseEventBuilder> latest = new AtomicReference<>();
+
+    UserSubscriber(SseEmitter emitter, long userId, UserStreams streams) {
+        super(emitter);
+        this.userId = userId;
+        this.streams = streams;
+    }
+
+    /**
+     * Queues an event, returning false if the queue was full and it was dropped.
+     */
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        if (streams.latestOnly) {
+            latest.set(event);
+            return true;
+        }
+        if (pendingCount.incrementAndGet() > streams.queueCapacity) {
+            pendingCount.decrementAndGet();
+            return false;
+        }
+        pending.add(event);
+        return true;
+    }
+
+    @Override
+    boolean hasPending() {
+        return streams.latestOnly ? latest.get() != null : !pending.isEmpty();
+    }
+
+    @Override
+    void sendPending() throws IOException {
+        if (streams.latestOnly) {
+            SseEmitter.SseEventBuilder event = latest.getAndSet(null);
+            if (event != null) {
+                emitter.send(event);
+            }
+            return;
+        }
+        SseEmitter.SseEventBuilder event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            emitter.send(event);
+        }
+    }
+}
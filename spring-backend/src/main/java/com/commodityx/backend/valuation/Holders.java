@@ -0,0 +1,60 @@
+package com.commodityx.backend.valuation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The reverse index of one commodity: every user holding it, with the lots held and the price
+ * they were last marked at in parallel arrays, so a repricing pass reads them sequentially and
+ * only dereferences each holder to add to its totals. Only the valuation thread touches the
+ * arrays; the latest price is handed over through {@code latestTicks}, and {@code queued}
+ * coalesces ticks until the book is repriced.
+ */
+final class Holders {
+
+    final long commodityId;
+    long priceTicks;
+    volatile long latestTicks;
+    final AtomicBoolean queued = new AtomicBoolean();
+    Holdings[] holders = new Holdings[16];
+    long[] lots = new long[16];
+    long[] markTicks = new long[16];
+    int size;
+
+    Holders(long commodityId, long priceTicks) {
+        this.commodityId = commodityId;
+        this.priceTicks = priceTicks;
+        this.latestTicks = priceTicks;
+    }
+
+    /**
+     * Adds a holder marked at the current price and returns its slot.
+     */
+    int add(Holdings holdings, long quantityLots) {
+        if (size == holders.length) {
+            int capacity = size + (size >> 1);
+            holders = Arrays.copyOf(holders, capacity);
+            lots = Arrays.copyOf(lots, capacity);
+            markTicks = Arrays.copyOf(markTicks, capacity);
+        }
+        holders[size] = holdings;
+        lots[size] = quantityLots;
+        markTicks[size] = priceTicks;
+        return size++;
+    }
+
+    /**
+     * Removes a holder by moving the last one into its slot and fixing that holder's back reference.
+     */
+    void removeAt(int slot) {
+        int last = --size;
+        if (slot != last) {
+            Holdings moved = holders[last];
+            holders[slot] = moved;
+            lots[slot] = lots[last];
+            markTicks[slot] = markTicks[last];
+            moved.slots[moved.indexOf(this)] = slot;
+        }
+        holders[last] = null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.commodityx.backend.valuation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The open positions of one user and their running totals. Each position is a commodity's
+ * {@link Holders} book, the slot holding the lots and mark in that book, and the average price
+ * paid. Only the valuation thread touches it.
+ */
+final class Holdings {
+
+    final long userId;
+    int count;
+    Holders[] books = new Holders[2];
+    int[] slots = new int[2];
+    long[] averageTicks = new long[2];
+    long valueMicros;
+    long costMicros;
+    boolean streaming;
+    boolean changed;
+    private Map<Long, Long> versions;
+
+    Holdings(long userId) {
+        this.userId = userId;
+    }
+
+    int indexOf(Holders book) {
+        for (int i = 0; i < count; i++) {
+            if (books[i] == book) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void add(Holders book, int slot, long averagePriceTicks) {
+        if (count == books.length) {
+            int capacity = Math.max(2, count * 2);
+            books = Arrays.copyOf(books, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+            averageTicks = Arrays.copyOf(averageTicks, capacity);
+        }
+        books[count] = book;
+        slots[count] = slot;
+        averageTicks[count] = averagePriceTicks;
+        count++;
+    }
+
+    void removeAt(int position) {
+        int last = --count;
+        books[position] = books[last];
+        slots[position] = slots[last];
+        averageTicks[position] = averageTicks[last];
+        books[last] = null;
+    }
+
+    /**
+     * Records the version of an update to the holding in {@code commodityId}, returning false if
+     * a later one has already been applied. Kept apart from the arrays so a holding's version
+     * survives it going to zero and being removed. Holdings loaded at startup are version zero
+     * and record nothing.
+     */
+    boolean advance(long commodityId, long version) {
+        if (version == 0) {
+            return true;
+        }
+        if (versions == null) {
+            versions = new HashMap<>(4);
+        }
+        Long applied = versions.get(commodityId);
+        if (applied != null && applied >= version) {
+            return false;
+        }
+        versions.put(commodityId, version);
+        return true;
+    }
+
+    /**
+     * Drops unused capacity, e.g. after the bulk load at startup.
+     */
+    void trim() {
+        if (books.length > count) {
+            books = Arrays.copyOf(books, count);
+            slots = Arrays.copyOf(slots, count);
+            averageTicks = Arrays.copyOf(averageTicks, count);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.commodityx.backend.valuation;
+
+import com.commodityx.backend.dto.PortfolioValuation;
+import com.commodityx.backend.dto.PositionValuation;
+import com.commodityx.backend.dto.ValuationStats;
+import com.commodityx.backend.engine.PriceScale;
+import com.commodityx.backend.market.CommodityCatalog;
+import com.commodityx.backend.model.Commodity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Marks every open position to market as prices move. Positions are indexed per user, to serve
+ * and push valuations, and per commodity, so a tick only visits the holders of the commodity it
+ * moved: O(holders) per tick, each adding {@code lots * (price - mark)} to the holder's market
+ * value. Notionals are exact long products, so the running totals always equal a full
+ * revaluation. A single thread owns all of this state and applies ticks and position changes in
+ * arrival order; ticks for a commodity that is already queued are coalesced into its latest
+ * price. Reads are handed to the same thread and served between updates, and every
+ * {@value #QUERY_INTERVAL} holders during a repricing pass, so nothing is locked per holder.
+ */
+@Component
+@DependsOn("writeBehindPipeline")
+public class ValuationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationEngine.class);
+    private static final String LOAD_POSITIONS = "SELECT user_id, commodity_id, quantity, average_price "
+            + "FROM portfolio WHERE quantity > 0";
+    private static final int QUERY_INTERVAL = 1 << 16;
+    private static final long QUERY_TIMEOUT_SECONDS = 10;
+    private static final Runnable WAKE = () -> { };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CommodityCatalog commodityCatalog;
+
+    @Value("${trading.valuation.fetch-size:1000}")
+    private int fetchSize;
+
+    // Owned by the valuation thread, like everything reachable from it
+    private final Map<Long, Holdings> users = new HashMap<>();
+    private final List<Holdings> changed = new ArrayList<>();
+    private final ConcurrentMap<Long, Holders> books = new ConcurrentHashMap<>();
+    // Bounded by the trading rate, since ticks are coalesced per commodity
+    private final BlockingQueue<Runnable> updates = new LinkedBlockingQueue<>();
+    private final Queue<Runnable> queries = new ConcurrentLinkedQueue<>();
+    private final AtomicLong positions = new AtomicLong();
+    private final AtomicLong repricings = new AtomicLong();
+    private final AtomicLong revaluedPositions = new AtomicLong();
+    private volatile int userCount;
+    private volatile long lastRepricingNanos;
+    private volatile long maxRepricingNanos;
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        for (Commodity commodity : commodityCatalog.getSnapshot().getCommodities()) {
+            book(commodity.getId());
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_POSITIONS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            apply(rs.getLong(1), rs.getLong(2), PriceScale.toLots(rs.getBigDecimal(3)),
+                    PriceScale.toTicks(rs.getBigDecimal(4)), 0);
+        });
+        users.values().forEach(Holdings::trim);
+        logger.info("Valuing {} positions of {} users", positions.get(), userCount);
+
+        running = true;
+        worker = new Thread(this::run, "valuation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a repricing of the commodity's holders. Cheap enough to call on every tick.
+     */
+    public void onPrice(long commodityId, long priceTicks) {
+        Holders book = books.computeIfAbsent(commodityId, id -> new Holders(id, priceTicks));
+        book.latestTicks = priceTicks;
+        if (book.queued.compareAndSet(false, true)) {
+            updates.add(() -> reprice(book));
+        }
+    }
+
+    /**
+     * Records a user's holding after a reservation, fill or release, as journaled. Fills are
+     * published after the account locks are released, so updates may arrive out of order; one
+     * older than the {@link com.commodityx.backend.account.Position#getVersion version} already
+     * applied is ignored.
+     */
+    public void onPosition(long userId, long commodityId, long quantityLots, long averagePriceTicks, long version) {
+        updates.add(() -> apply(userId, commodityId, quantityLots, averagePriceTicks, version));
+    }
+
+    /**
+     * The user's positions marked at the price each was last revalued at, with totals that
+     * match them exactly.
+     */
+    public PortfolioValuation getValuation(long userId) {
+        CompletableFuture<long[]> rows = new CompletableFuture<>();
+        ask(() -> {
+            Holdings holdings = users.get(userId);
+            rows.complete(holdings == null ? new long[2] : copy(holdings));
+        });
+        return valuation(await(rows));
+    }
+
+    /**
+     * Marks whether the user has a live stream open, so that their changes are collected for
+     * {@link #drainChanged}.
+     */
+    public void setStreaming(long userId, boolean streaming) {
+        ask(() -> {
+            Holdings holdings = streaming ? holdings(userId) : users.get(userId);
+            if (holdings != null) {
+                holdings.streaming = streaming;
+            }
+        });
+    }
+
+    /**
+     * Hands over the current valuation of every streaming user whose portfolio changed since the
+     * last call.
+     */
+    public void drainChanged(Consumer<Valuation> consumer) {
+        CompletableFuture<Map<Long, long[]>> drained = new CompletableFuture<>();
+        ask(() -> {
+            Map<Long, long[]> rows = new LinkedHashMap<>();
+            for (Holdings holdings : changed) {
+                holdings.changed = false;
+                if (holdings.streaming) {
+                    rows.put(holdings.userId, copy(holdings));
+                }
+            }
+            changed.clear();
+            drained.complete(rows);
+        });
+        await(drained).forEach((userId, rows) -> consumer.accept(new Valuation(userId, valuation(rows))));
+    }
+
+    public ValuationStats getStats() {
+        return new ValuationStats(userCount, positions.get(), updates.size(), repricings.get(),
+                revaluedPositions.get(),
+                lastRepricingNanos / 1_000_000.0, maxRepricingNanos / 1_000_000.0);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Runnable update = updates.take();
+                serveQueries();
+                update.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Valuation update failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void ask(Runnable query) {
+        queries.add(query);
+        updates.add(WAKE);
+    }
+
+    private static <T> T await(CompletableFuture<T> answer) {
+        try {
+            return answer.get(QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the valuation");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Valuation is not available");
+        }
+    }
+
+    private void serveQueries() {
+        Runnable query;
+        while ((query = queries.poll()) != null) {
+            try {
+                query.run();
+            } catch (RuntimeException e) {
+                logger.error("Valuation query failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void reprice(Holders book) {
+        book.queued.set(false);
+        long priceTicks = book.latestTicks;
+        if (priceTicks == book.priceTicks) {
+            return;
+        }
+        long started = System.nanoTime();
+        book.priceTicks = priceTicks;
+        Holdings[] holders = book.holders;
+        long[] lots = book.lots;
+        long[] marks = book.markTicks;
+        int size = book.size;
+        for (int i = 0; i < size; i++) {
+            if ((i & (QUERY_INTERVAL - 1)) == QUERY_INTERVAL - 1) {
+                serveQueries();
+            }
+            Holdings holdings = holders[i];
+            holdings.valueMicros += PriceScale.notionalMicros(priceTicks - marks[i], lots[i]);
+            marks[i] = priceTicks;
+            markChanged(holdings);
+        }
+        long elapsed = System.nanoTime() - started;
+        lastRepricingNanos = elapsed;
+        maxRepricingNanos = Math.max(maxRepricingNanos, elapsed);
+        repricings.incrementAndGet();
+        revaluedPositions.addAndGet(size);
+    }
+
+    private void apply(long userId, long commodityId, long quantityLots, long averagePriceTicks, long version) {
+        Holdings holdings = holdings(userId);
+        if (!holdings.advance(commodityId, version)) {
+            return;
+        }
+        Holders book = book(commodityId);
+        int position = holdings.indexOf(book);
+        if (position >= 0) {
+            int slot = holdings.slots[position];
+            long heldLots = book.lots[slot];
+            holdings.valueMicros -= PriceScale.notionalMicros(book.markTicks[slot], heldLots);
+            holdings.costMicros -= PriceScale.notionalMicros(holdings.averageTicks[position], heldLots);
+        }
+
+        if (quantityLots <= 0) {
+            if (position < 0) {
+                return;
+            }
+            book.removeAt(holdings.slots[position]);
+            holdings.removeAt(position);
+            positions.decrementAndGet();
+        } else {
+            int slot;
+            if (position < 0) {
+                slot = book.add(holdings, quantityLots);
+                holdings.add(book, slot, averagePriceTicks);
+                positions.incrementAndGet();
+            } else {
+                slot = holdings.slots[position];
+                book.lots[slot] = quantityLots;
+                holdings.averageTicks[position] = averagePriceTicks;
+            }
+            holdings.valueMicros += PriceScale.notionalMicros(book.markTicks[slot], quantityLots);
+            holdings.costMicros += PriceScale.notionalMicros(averagePriceTicks, quantityLots);
+        }
+        markChanged(holdings);
+    }
+
+    private Holdings holdings(long userId) {
+        Holdings holdings = users.get(userId);
+        if (holdings == null) {
+            holdings = new Holdings(userId);
+            users.put(userId, holdings);
+            userCount = users.size();
+        }
+        return holdings;
+    }
+
+    private Holders book(long commodityId) {
+        Holders book = books.get(commodityId);
+        if (book != null) {
+            return book;
+        }
+        Commodity commodity = commodityCatalog.get(commodityId);
+        long priceTicks = commodity == null || commodity.getCurrentPrice() == null
+                ? 0 : PriceScale.toTicks(commodity.getCurrentPrice());
+        return books.computeIfAbsent(commodityId, id -> new Holders(id, priceTicks));
+    }
+
+    private void markChanged(Holdings holdings) {
+        if (holdings.streaming && !holdings.changed) {
+            holdings.changed = true;
+            changed.add(holdings);
+        }
+    }
+
+    /**
+     * Copies the positions as (commodity id, lots, average price, mark) rows followed by the
+     * market value and cost totals, so the valuation can be built off the valuation thread.
+     */
+    private static long[] copy(Holdings holdings) {
+        int count = holdings.count;
+        long[] rows = new long[count * 4 + 2];
+        for (int i = 0; i < count; i++) {
+            Holders book = holdings.books[i];
+            int slot = holdings.slots[i];
+            rows[4 * i] = book.commodityId;
+            rows[4 * i + 1] = book.lots[slot];
+            rows[4 * i + 2] = holdings.averageTicks[i];
+            rows[4 * i + 3] = book.markTicks[slot];
+        }
+        rows[count * 4] = holdings.valueMicros;
+        rows[count * 4 + 1] = holdings.costMicros;
+        return rows;
+    }
+
+    private PortfolioValuation valuation(long[] rows) {
+        int count = (rows.length - 2) / 4;
+        List<PositionValuation> valued = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long commodityId = rows[4 * i];
+            long lots = rows[4 * i + 1];
+            long value = PriceScale.notionalMicros(rows[4 * i + 3], lots);
+            long cost = PriceScale.notionalMicros(rows[4 * i + 2], lots);
+            Commodity commodity = commodityCatalog.get(commodityId);
+            valued.add(new PositionValuation(commodityId, commodity == null ? null : commodity.getSymbol(),
+                    PriceScale.fromLots(lots), PriceScale.fromTicks(rows[4 * i + 2]),
+                    PriceScale.fromTicks(rows[4 * i + 3]), PriceScale.fromMicros(value),
+                    PriceScale.fromMicros(value - cost)));
+        }
+        long valueMicros = rows[count * 4];
+        long costMicros = rows[count * 4 + 1];
+        return new PortfolioValuation(valued, PriceScale.fromMicros(valueMicros), PriceScale.fromMicros(costMicros),
+                PriceScale.fromMicros(valueMicros - costMicros));
+    }
+
+    public static final class Valuation {
+        private final long userId;
+        private final PortfolioValuation valuation;
+
+        private Valuation(long userId, PortfolioValuation valuation) {
+            this.userId = userId;
+            this.valuation = valuation;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public PortfolioValuation getValuation() {
+            return valuation;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.commodityx.backend.valuation;
+
+import com.commodityx.backend.stream.UserStreamHub;
+import com.commodityx.backend.stream.UserStreams;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes portfolio valuations to their owners over SSE. A stream opens with the current
+ * valuation; after that, once per interval, every user whose valuation changed gets one
+ * "valuation" event with its latest state, however many ticks moved it in between. A stream
+ * that has not caught up only keeps the newest valuation.
+ */
+@Component
+public class ValuationNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationNotifier.class);
+
+    @Autowired
+    private ValuationEngine valuationEngine;
+
+    @Autowired
+    private UserStreamHub userStreamHub;
+
+    @Value("${trading.valuation.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${trading.stream.interval-ms:250}")
+    private long intervalMs;
+
+    private UserStreams streams;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void start() {
+        streams = userStreamHub.topic("valuation", maxStreamsPerUser, 1, true);
+        streams.onLastClosed(userId -> valuationEngine.setStreaming(userId, false));
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "valuation-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::push, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    public SseEmitter subscribe(long userId) {
+        SseEmitter emitter = streams.subscribe(userId);
+        valuationEngine.setStreaming(userId, true);
+        streams.publish(userId, valuationEngine.getValuation(userId));
+        return emitter;
+    }
+
+    private void push() {
+        try {
+            valuationEngine.drainChanged(valuation -> streams.publish(valuation.getUserId(), valuation.getValuation()));
+        } catch (RuntimeException e) {
+            logger.error("Valuation push failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.commodityx.backend.account;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Opposing trades between two users who share a stripe, racing trades with a user on another
+ * stripe and single-user changes, neither deadlock nor lose an update.
+ */
+class AccountLocksTest {
+
+    private static final int ROUNDS = 20_000;
+    private static final long START_MICROS = 1_000_000_000L;
+
+    private final AccountLocks locks = new AccountLocks(4);
+
+    @Test
+    void opposingTradesOnASharedStripeKeepBalancesConsistent() throws Exception {
+        long alice = 1;
+        long bob = userOnStripeOf(alice);
+        long carol = userOnOtherStripeThan(alice);
+        Account a = new Account(alice, START_MICROS);
+        Account b = new Account(bob, START_MICROS);
+        Account c = new Account(carol, START_MICROS);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(5);
+        List<Future<?>> running = new ArrayList<>();
+        try {
+            // Alice pays Bob 3 and Bob pays Alice 2, each locking the pair in their own order
+            running.add(threads.submit(() -> repeat(start,
+                    () -> locks.withLocks(new long[]{alice, bob}, () -> transfer(a, b, 3)))));
+            running.add(threads.submit(() -> repeat(start,
+                    () -> locks.withLocks(new long[]{bob, alice}, () -> transfer(b, a, 2)))));
+            // Carol trades with both from another stripe
+            running.add(threads.submit(() -> repeat(start,
+                    () -> locks.withLocks(new long[]{carol, alice}, () -> transfer(c, a, 5)))));
+            running.add(threads.submit(() -> repeat(start,
+                    () -> locks.withLocks(new long[]{bob, carol}, () -> transfer(b, c, 7)))));
+            // Alice also reserves and releases cash for her own orders
+            running.add(threads.submit(() -> repeat(start, () -> locks.withLock(alice, () -> {
+                a.debit(11);
+                a.credit(11);
+                return null;
+            }))));
+
+            start.countDown();
+            for (Future<?> thread : running) {
+                thread.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(3 * START_MICROS, a.getBalanceMicros() + b.getBalanceMicros() + c.getBalanceMicros(),
+                "cash was created or destroyed");
+        assertEquals(START_MICROS + ROUNDS * (-3 + 2 + 5), a.getBalanceMicros());
+        assertEquals(START_MICROS + ROUNDS * (3 - 2 - 7), b.getBalanceMicros());
+        assertEquals(START_MICROS + ROUNDS * (-5 + 7), c.getBalanceMicros());
+    }
+
+    @Test
+    void sameUserTwiceLocksItsStripeOnce() {
+        long alice = 1;
+        long bob = userOnStripeOf(alice);
+
+        assertEquals("done", locks.withLocks(new long[]{alice, bob, alice}, () -> "done"));
+        assertEquals("again", locks.withLock(bob, () -> "again"));
+    }
+
+    private static Object transfer(Account from, Account to, long micros) {
+        from.debit(micros);
+        to.credit(micros);
+        return null;
+    }
+
+    private static void repeat(CountDownLatch start, Runnable action) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            action.run();
+        }
+    }
+
+    private long userOnStripeOf(long userId) {
+        int stripe = stripe(userId);
+        for (long candidate = userId + 1; ; candidate++) {
+            if (stripe(candidate) == stripe) {
+                return candidate;
+            }
+        }
+    }
+
+    private long userOnOtherStripeThan(long userId) {
+        int stripe = stripe(userId);
+        for (long candidate = userId + 1; ; candidate++) {
+            if (stripe(candidate) != stripe) {
+                return candidate;
+            }
+        }
+    }
+
+    private int stripe(long userId) {
+        return ReflectionTestUtils.<Integer>invokeMethod(locks, "stripe", userId);
+    }
+}
@@ -0,0 +1,118 @@
+package com.commodityx.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listings that include the commodity of every row must load it in the same statement. Each
+ * endpoint is called for a user with three rows, and Hibernate statistics must show exactly one
+ * prepared statement for the request; an N+1 regression shows up as four.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing-statements;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:test-commodities.sql",
+        "trading.journal.dir=target/test-journal/${random.uuid}",
+        "trading.ticks.source=none",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingStatementCountTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String authorization;
+
+    @BeforeAll
+    void createUserWithListings() throws Exception {
+        String registered = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"lister\",\"email\":\"lister@test.local\","
+                                + "\"password\":\"secret1\",\"fullName\":\"Lister\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode user = objectMapper.readTree(registered);
+        authorization = "Bearer " + user.get("token").asText();
+        long userId = user.get("id").asLong();
+
+        List<Long> commodityIds = jdbcTemplate.queryForList("SELECT id FROM commodities ORDER BY id", Long.class);
+        for (long commodityId : commodityIds) {
+            mockMvc.perform(post("/api/watchlist").header(HttpHeaders.AUTHORIZATION, authorization)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"commodityId\":" + commodityId + "}"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/alerts").header(HttpHeaders.AUTHORIZATION, authorization)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"commodityId\":" + commodityId + ",\"targetPrice\":100000,\"condition\":\"ABOVE\"}"))
+                    .andExpect(status().isOk());
+            jdbcTemplate.update("INSERT INTO portfolio (user_id, commodity_id, quantity, average_price, version, updated_at) "
+                    + "VALUES (?, ?, 10, 100.00, 0, CURRENT_TIMESTAMP)", userId, commodityId);
+        }
+    }
+
+    @Test
+    void portfolioIsOneStatement() throws Exception {
+        assertEquals(1, statementsFor("/api/trading/portfolio"));
+    }
+
+    @Test
+    void watchlistIsOneStatement() throws Exception {
+        assertEquals(1, statementsFor("/api/watchlist"));
+    }
+
+    @Test
+    void alertsAreOneStatement() throws Exception {
+        assertEquals(1, statementsFor("/api/alerts"));
+    }
+
+    private long statementsFor(String path) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS));
+        return statistics.getPrepareStatementCount();
+    }
+}
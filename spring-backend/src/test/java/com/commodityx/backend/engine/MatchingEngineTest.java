@@ -0,0 +1,103 @@
+package com.commodityx.backend.engine;
+
+import com.commodityx.backend.model.OrderType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Orders reach a commodity's book in the order they were submitted, each commodity has a book
+ * of its own, and submitters racing on one commodity cannot corrupt it.
+ */
+class MatchingEngineTest {
+
+    private final MatchingEngine engine = new MatchingEngine();
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void matchesAndCancelsInSubmissionOrder() {
+        CompletableFuture<MatchResult> sell = engine.submit(1, 10, 1, OrderType.SELL, 10_000, 10_000);
+        CompletableFuture<MatchResult> buy = engine.submit(2, 20, 1, OrderType.BUY, 10_100, 4_000);
+        CompletableFuture<Long> cancelled = engine.cancel(1, 1);
+        CompletableFuture<Long> cancelledAgain = engine.cancel(1, 1);
+
+        assertEquals(10_000, sell.join().getRemainingLots());
+        MatchResult bought = buy.join();
+        assertEquals(1, bought.getFillCount());
+        assertEquals(1, bought.getSellOrderId(0));
+        assertEquals(10_000, bought.getPriceTicks(0));
+        assertEquals(4_000, bought.getQuantityLots(0));
+        assertEquals(6_000, cancelled.join());
+        assertEquals(0, cancelledAgain.join());
+    }
+
+    @Test
+    void commoditiesHaveSeparateBooks() {
+        engine.submit(1, 10, 1, OrderType.SELL, 10_000, 10_000).join();
+
+        MatchResult other = engine.submit(2, 20, 2, OrderType.BUY, 10_000, 10_000).join();
+
+        assertEquals(0, other.getFillCount());
+        assertEquals(10_000, engine.cancel(2, 2).join());
+        assertEquals(10_000, engine.cancel(1, 1).join());
+    }
+
+    @Test
+    void concurrentSubmittersLeaveAConsistentBook() throws Exception {
+        int threads = 4;
+        int pairs = 2_000;
+        AtomicLong orderIds = new AtomicLong();
+        AtomicLong filledLots = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService submitters = Executors.newFixedThreadPool(threads);
+        List<Future<List<CompletableFuture<MatchResult>>>> submitted = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                submitted.add(submitters.submit(() -> {
+                    start.await();
+                    List<CompletableFuture<MatchResult>> results = new ArrayList<>();
+                    for (int i = 0; i < pairs; i++) {
+                        results.add(engine.submit(orderIds.incrementAndGet(), 1, 1, OrderType.SELL, 10_000, 1));
+                        results.add(engine.submit(orderIds.incrementAndGet(), 2, 1, OrderType.BUY, 10_000, 1));
+                    }
+                    return results;
+                }));
+            }
+            start.countDown();
+            for (Future<List<CompletableFuture<MatchResult>>> thread : submitted) {
+                for (CompletableFuture<MatchResult> result : thread.get(60, TimeUnit.SECONDS)) {
+                    MatchResult matched = result.get(60, TimeUnit.SECONDS);
+                    for (int fill = 0; fill < matched.getFillCount(); fill++) {
+                        filledLots.addAndGet(matched.getQuantityLots(fill));
+                    }
+                }
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+
+        // Every sell meets exactly one buy at the same price, so nothing is left resting
+        assertEquals((long) threads * pairs, filledLots.get());
+        long resting = 0;
+        for (long orderId = 1; orderId <= orderIds.get(); orderId++) {
+            resting += engine.cancel(1, orderId).join();
+        }
+        assertEquals(0, resting);
+        assertEquals(2L * threads * pairs, orderIds.get());
+    }
+}
@@ -0,0 +1,175 @@
+package com.commodityx.backend.engine;
+
+import com.commodityx.backend.model.OrderType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Price-time priority, partial fills and cancels on a single book, and that pooled orders and
+ * levels come back clean when they are reused.
+ */
+class OrderBookTest {
+
+    private static final long SELLER = 10;
+    private static final long BUYER = 20;
+
+    private final OrderBook book = new OrderBook(1);
+
+    @Test
+    void bestPriceFillsFirstAtTheRestingPrice() {
+        book.match(1, SELLER, OrderType.SELL, 10_200, 10_000);
+        book.match(2, SELLER, OrderType.SELL, 10_000, 10_000);
+        book.match(3, SELLER, OrderType.SELL, 10_100, 10_000);
+
+        MatchResult result = book.match(4, BUYER, OrderType.BUY, 10_150, 15_000);
+
+        assertEquals(2, result.getFillCount());
+        assertFill(result, 0, 4, BUYER, 2, SELLER, 10_000, 10_000);
+        assertFill(result, 1, 4, BUYER, 3, SELLER, 10_100, 5_000);
+        assertTrue(result.isFullyFilled());
+        assertEquals(2, book.size(), "order 3 keeps its remainder and order 1 is untouched");
+    }
+
+    @Test
+    void earlierOrderFillsFirstWithinALevel() {
+        book.match(1, 11, OrderType.BUY, 10_000, 10_000);
+        book.match(2, 12, OrderType.BUY, 10_000, 10_000);
+        book.match(3, 13, OrderType.BUY, 10_000, 10_000);
+
+        MatchResult result = book.match(4, SELLER, OrderType.SELL, 9_900, 15_000);
+
+        assertEquals(2, result.getFillCount());
+        assertFill(result, 0, 1, 11, 4, SELLER, 10_000, 10_000);
+        assertFill(result, 1, 2, 12, 4, SELLER, 10_000, 5_000);
+
+        // Order 2 keeps its place at the head of the level with what is left of it
+        MatchResult next = book.match(5, SELLER, OrderType.SELL, 10_000, 10_000);
+        assertFill(next, 0, 2, 12, 5, SELLER, 10_000, 5_000);
+        assertFill(next, 1, 3, 13, 5, SELLER, 10_000, 5_000);
+    }
+
+    @Test
+    void unfilledRemainderRestsAtItsLimit() {
+        book.match(1, SELLER, OrderType.SELL, 10_000, 4_000);
+
+        MatchResult result = book.match(2, BUYER, OrderType.BUY, 10_000, 10_000);
+
+        assertEquals(1, result.getFillCount());
+        assertEquals(6_000, result.getRemainingLots());
+        assertFalse(result.isFullyFilled());
+        assertEquals(1, book.size());
+
+        MatchResult sell = book.match(3, SELLER, OrderType.SELL, 10_000, 6_000);
+        assertFill(sell, 0, 2, BUYER, 3, SELLER, 10_000, 6_000);
+        assertEquals(0, book.size());
+    }
+
+    @Test
+    void limitStopsTheSweep() {
+        book.match(1, SELLER, OrderType.SELL, 10_100, 10_000);
+
+        MatchResult result = book.match(2, BUYER, OrderType.BUY, 10_000, 10_000);
+
+        assertEquals(0, result.getFillCount());
+        assertEquals(10_000, result.getRemainingLots());
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void cancelRemovesTheOrderFromItsLevel() {
+        book.match(1, 11, OrderType.BUY, 10_000, 10_000);
+        book.match(2, 12, OrderType.BUY, 10_000, 10_000);
+        book.match(3, 13, OrderType.BUY, 10_000, 10_000);
+        book.match(4, SELLER, OrderType.SELL, 10_000, 2_500);
+
+        assertEquals(10_000, book.cancel(2));
+        assertEquals(7_500, book.cancel(1), "a partly filled order returns what is left");
+        assertEquals(0, book.cancel(2), "a second cancel finds nothing");
+        assertEquals(0, book.cancel(99));
+        assertEquals(1, book.size());
+
+        MatchResult result = book.match(5, SELLER, OrderType.SELL, 10_000, 20_000);
+        assertEquals(1, result.getFillCount());
+        assertFill(result, 0, 3, 13, 5, SELLER, 10_000, 10_000);
+    }
+
+    @Test
+    void cancellingTheLastOrderOfALevelRemovesTheLevel() {
+        book.match(1, BUYER, OrderType.BUY, 10_100, 10_000);
+        book.match(2, BUYER, OrderType.BUY, 10_000, 10_000);
+
+        assertEquals(10_000, book.cancel(1));
+
+        MatchResult result = book.match(3, SELLER, OrderType.SELL, 9_000, 10_000);
+        assertFill(result, 0, 2, BUYER, 3, SELLER, 10_000, 10_000);
+    }
+
+    @Test
+    void reusedOrdersAndLevelsCarryNoStaleFields() {
+        book.match(1, BUYER, OrderType.BUY, 10_000, 10_000);
+        book.match(2, SELLER, OrderType.SELL, 10_000, 10_000);
+        book.match(3, 11, OrderType.BUY, 9_000, 5_000);
+        assertEquals(5_000, book.cancel(3));
+
+        ObjectPool<EngineOrder> orders = pool("orderPool");
+        EngineOrder order = orders.acquire();
+        assertEquals(0, order.orderId);
+        assertEquals(0, order.userId);
+        assertFalse(order.buy);
+        assertEquals(0, order.remainingLots);
+        assertNull(order.level);
+        assertNull(order.prev);
+        assertNull(order.next);
+        orders.release(order);
+
+        ObjectPool<PriceLevel> levels = pool("levelPool");
+        PriceLevel level = levels.acquire();
+        assertEquals(0, level.priceTicks);
+        assertNull(level.head);
+        assertNull(level.tail);
+        assertNull(level.prev);
+        assertNull(level.next);
+        levels.release(level);
+
+        // The recycled instances back new orders on the other side without mixing them up
+        book.match(4, 12, OrderType.SELL, 9_500, 3_000);
+        book.match(5, 13, OrderType.SELL, 9_400, 3_000);
+        MatchResult result = book.match(6, 14, OrderType.BUY, 9_500, 6_000);
+        assertFill(result, 0, 6, 14, 5, 13, 9_400, 3_000);
+        assertFill(result, 1, 6, 14, 4, 12, 9_500, 3_000);
+        assertEquals(0, book.size());
+    }
+
+    @Test
+    void poolHandsBackReleasedInstancesBeforeAllocating() {
+        ObjectPool<EngineOrder> pool = new ObjectPool<>(EngineOrder::new, 1);
+        EngineOrder first = pool.acquire();
+        EngineOrder extra = pool.acquire();
+        pool.release(first);
+        pool.release(extra);
+
+        assertSame(extra, pool.acquire());
+        assertSame(first, pool.acquire());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ObjectPool<T> pool(String field) {
+        return (ObjectPool<T>) ReflectionTestUtils.getField(book, field);
+    }
+
+    private static void assertFill(MatchResult result, int fill, long buyOrderId, long buyerId,
+                                   long sellOrderId, long sellerId, long priceTicks, long quantityLots) {
+        assertEquals(buyOrderId, result.getBuyOrderId(fill), "buy order of fill " + fill);
+        assertEquals(buyerId, result.getBuyerId(fill), "buyer of fill " + fill);
+        assertEquals(sellOrderId, result.getSellOrderId(fill), "sell order of fill " + fill);
+        assertEquals(sellerId, result.getSellerId(fill), "seller of fill " + fill);
+        assertEquals(priceTicks, result.getPriceTicks(fill), "price of fill " + fill);
+        assertEquals(quantityLots, result.getQuantityLots(fill), "quantity of fill " + fill);
+    }
+}
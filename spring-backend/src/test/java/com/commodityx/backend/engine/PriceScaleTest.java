@@ -0,0 +1,63 @@
+package com.commodityx.backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Conversions round half-up onto the fixed-point scales, averages round half-up to whole ticks,
+ * and anything that would overflow a long throws instead of wrapping.
+ */
+class PriceScaleTest {
+
+    @Test
+    void convertsToTheFixedPointScales() {
+        assertEquals(198_550, PriceScale.toTicks(new BigDecimal("1985.50")));
+        assertEquals(10_001, PriceScale.toTicks(new BigDecimal("100.005")));
+        assertEquals(10_000, PriceScale.toTicks(new BigDecimal("100.0049")));
+        assertEquals(12_346, PriceScale.toLots(new BigDecimal("1.23455")));
+        assertEquals(1_500_001, PriceScale.toMicros(new BigDecimal("1.5000005")));
+
+        assertEquals(new BigDecimal("1985.50"), PriceScale.fromTicks(198_550));
+        assertEquals(new BigDecimal("1.2346"), PriceScale.fromLots(12_346));
+        assertEquals(new BigDecimal("1.500001"), PriceScale.fromMicros(1_500_001));
+    }
+
+    @Test
+    void notionalIsTheExactProductInMicros() {
+        // 1.2345 lots at 100.01 is 123.462345
+        assertEquals(123_462_345, PriceScale.notionalMicros(10_001, 12_345));
+        assertEquals(new BigDecimal("123.462345"), PriceScale.fromMicros(PriceScale.notionalMicros(10_001, 12_345)));
+    }
+
+    @Test
+    void averageOfAnEmptyHoldingIsThePurchasePrice() {
+        assertEquals(10_050, PriceScale.averagePriceTicks(0, 0, 30_000, 10_050));
+    }
+
+    @Test
+    void averageRoundsHalfUpToWholeTicks() {
+        // (1 x 100.00 + 1 x 100.01) / 2 = 100.005
+        assertEquals(10_001, PriceScale.averagePriceTicks(10_000, 10_000, 10_000, 10_001));
+        // (3 x 100.00 + 1 x 100.01) / 4 = 100.0025
+        assertEquals(10_000, PriceScale.averagePriceTicks(30_000, 10_000, 10_000, 10_001));
+        // (1 x 100.00 + 2 x 100.01) / 3 = 100.00666...
+        assertEquals(10_001, PriceScale.averagePriceTicks(10_000, 10_000, 20_000, 10_001));
+        // Weighted by lots, not by the number of purchases
+        assertEquals(10_090, PriceScale.averagePriceTicks(1_000, 10_000, 9_000, 10_100));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> PriceScale.notionalMicros(Long.MAX_VALUE / 2, 3));
+        assertThrows(ArithmeticException.class,
+                () -> PriceScale.averagePriceTicks(Long.MAX_VALUE / 10_000, 10_000, 1, 10_000));
+        assertThrows(ArithmeticException.class,
+                () -> PriceScale.averagePriceTicks(Long.MAX_VALUE, 1, 1, 1));
+        assertThrows(ArithmeticException.class,
+                () -> PriceScale.toTicks(new BigDecimal("1e20")));
+    }
+}
@@ -0,0 +1,257 @@
+package com.commodityx.backend.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kills a JVM that is appending trades to the journal with SIGKILL, several times over the same
+ * directory, and checks what is left: every record up to the end of the last complete group
+ * passes its checksum, replay delivers only whole groups with no gaps in the sequence, nothing
+ * acknowledged by an append is lost, and the rebuilt balances and positions add up to what the
+ * traders started with.
+ */
+class TradeJournalCrashTest {
+
+    private static final int TRADERS = 20;
+    private static final long START_BALANCE_MICROS = 1_000_000_000L;
+    private static final long START_LOTS = 1_000_000L;
+    private static final long COMMODITY_ID = 1;
+    private static final int GROUP_SIZE = 4;
+    private static final int ROUNDS = 4;
+    private static final String APPENDED = "appended ";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayIsConsistentAfterKillsMidWrite() throws Exception {
+        Random random = new Random(42);
+        long acknowledged = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            acknowledged = Math.max(acknowledged, runAndKill(200 + random.nextInt(2000)));
+        }
+
+        assertSegmentsHoldOnlyValidGroups();
+
+        Ledger ledger = new Ledger();
+        List<JournalEvent> group = new ArrayList<>();
+        long[] expectedSequence = {1};
+        JournalSegments.replay(dir, 0, event -> {
+            assertEquals(expectedSequence[0]++, event.getSequence(), "gap or repeat in replayed sequences");
+            group.add(event);
+            if (event.isEndOfGroup()) {
+                assertEquals(GROUP_SIZE, group.size(), "replayed group is incomplete");
+                group.forEach(ledger::apply);
+                group.clear();
+            }
+        });
+        long replayed = expectedSequence[0] - 1;
+
+        assertTrue(group.isEmpty(), "replay ended inside a group");
+        assertTrue(replayed >= acknowledged,
+                "sequence " + acknowledged + " was appended before the kill but only " + replayed + " replayed");
+        assertEquals(TRADERS * START_BALANCE_MICROS, ledger.totalBalance(), "cash was created or destroyed");
+        assertEquals(TRADERS * START_LOTS, ledger.totalLots(), "holdings were created or destroyed");
+    }
+
+    @Test
+    void scanStopsBeforeGroupWithCorruptLastRecord() throws IOException {
+        TradeJournal journal = Writer.open(dir);
+        Writer writer = new Writer(journal, new Ledger(), new Random(7));
+        writer.trade();
+        writer.trade();
+        journal.close();
+
+        Path segment = JournalSegments.list(dir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long lastRecord = 2L * GROUP_SIZE * JournalEvent.RECORD_SIZE - JournalEvent.RECORD_SIZE;
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), lastRecord + JournalEvent.HEADER_SIZE);
+
+            List<JournalEvent> events = new ArrayList<>();
+            long validEnd = JournalSegments.scan(channel, events::add);
+            assertEquals((long) GROUP_SIZE * JournalEvent.RECORD_SIZE, validEnd);
+            assertEquals(GROUP_SIZE, events.size());
+            assertTrue(events.get(GROUP_SIZE - 1).isEndOfGroup());
+            assertEquals(GROUP_SIZE, JournalSegments.countTail(channel, validEnd));
+        }
+
+        TradeJournal reopened = Writer.open(dir);
+        assertEquals(GROUP_SIZE, reopened.getLastSequence());
+        reopened.close();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            assertEquals(0, JournalSegments.countTail(channel, JournalSegments.scan(channel, event -> { })));
+        }
+    }
+
+    /**
+     * Starts a writer over the journal directory, lets it append at least {@code groups} groups,
+     * kills it and returns the last sequence it reported as appended.
+     */
+    private long runAndKill(int groups) throws Exception {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"),
+                Writer.class.getName(), dir.toString())
+                .redirectErrorStream(true)
+                .start();
+        long acknowledged = 0;
+        int seen = 0;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith(APPENDED)) {
+                    acknowledged = Long.parseLong(line.substring(APPENDED.length()));
+                    if (++seen >= groups) {
+                        break;
+                    }
+                }
+            }
+            assertTrue(process.isAlive(), "writer exited before it was killed");
+            process.destroyForcibly();
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        } finally {
+            process.destroyForcibly();
+        }
+        assertFalse(process.isAlive());
+        return acknowledged;
+    }
+
+    private void assertSegmentsHoldOnlyValidGroups() throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer record = ByteBuffer.allocate(JournalEvent.RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        for (Path segment : JournalSegments.list(dir)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                long validEnd = JournalSegments.scan(channel, event -> { });
+                assertEquals(0, validEnd % JournalEvent.RECORD_SIZE);
+                for (long position = 0; position < validEnd; position += JournalEvent.RECORD_SIZE) {
+                    record.clear();
+                    channel.read(record, position);
+                    crc.reset();
+                    crc.update(record.array(), 0, JournalEvent.RECORD_SIZE - 4);
+                    assertEquals((int) crc.getValue(), record.getInt(JournalEvent.RECORD_SIZE - 4),
+                            segment.getFileName() + " has a bad checksum at " + position);
+                    boolean last = position + JournalEvent.RECORD_SIZE == validEnd;
+                    if (last) {
+                        assertTrue(record.get(1) != 0, segment.getFileName() + " ends without an end-of-group record");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Balances and positions rebuilt from the absolute values the events carry.
+     */
+    static final class Ledger {
+
+        private final long[] balances = new long[TRADERS + 1];
+        private final long[] lots = new long[TRADERS + 1];
+
+        Ledger() {
+            for (int trader = 1; trader <= TRADERS; trader++) {
+                balances[trader] = START_BALANCE_MICROS;
+                lots[trader] = START_LOTS;
+            }
+        }
+
+        void apply(JournalEvent event) {
+            if (event instanceof BalanceChangedEvent balance) {
+                balances[(int) balance.getUserId()] = balance.getBalanceMicros();
+            } else if (event instanceof PositionChangedEvent position) {
+                lots[(int) position.getUserId()] = position.getQuantityLots();
+            }
+        }
+
+        long totalBalance() {
+            long total = 0;
+            for (long balance : balances) {
+                total += balance;
+            }
+            return total;
+        }
+
+        long totalLots() {
+            long total = 0;
+            for (long quantity : lots) {
+                total += quantity;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Runs in the forked JVM: resumes the journal, rebuilds the ledger from it and appends trades
+     * until killed, reporting the sequence of every appended group.
+     */
+    static final class Writer {
+
+        private final TradeJournal journal;
+        private final Ledger ledger;
+        private final Random random;
+
+        Writer(TradeJournal journal, Ledger ledger, Random random) {
+            this.journal = journal;
+            this.ledger = ledger;
+            this.random = random;
+        }
+
+        public static void main(String[] args) throws IOException {
+            Path dir = Paths.get(args[0]);
+            Ledger ledger = new Ledger();
+            JournalSegments.replay(dir, 0, ledger::apply);
+            Writer writer = new Writer(open(dir), ledger, new Random());
+            while (true) {
+                System.out.println(APPENDED + writer.trade());
+            }
+        }
+
+        static TradeJournal open(Path dir) throws IOException {
+            TradeJournal journal = new TradeJournal();
+            ReflectionTestUtils.setField(journal, "directory", dir.toString());
+            ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+            ReflectionTestUtils.setField(journal, "fsyncIntervalMs", 50L);
+            journal.open();
+            return journal;
+        }
+
+        /**
+         * Moves lots from one trader to another for cash, as one group of absolute balances and positions.
+         */
+        long trade() {
+            int buyer = 1 + random.nextInt(TRADERS);
+            int seller = 1 + (buyer + random.nextInt(TRADERS - 1)) % TRADERS;
+            long quantity = Math.min(1 + random.nextInt(10_000), ledger.lots[seller]);
+            long cost = Math.min(quantity * (1 + random.nextInt(100)), ledger.balances[buyer]);
+            ledger.balances[buyer] -= cost;
+            ledger.balances[seller] += cost;
+            ledger.lots[buyer] += quantity;
+            ledger.lots[seller] -= quantity;
+
+            long now = System.currentTimeMillis();
+            return journal.append(
+                    new BalanceChangedEvent(now, buyer, ledger.balances[buyer]),
+                    new BalanceChangedEvent(now, seller, ledger.balances[seller]),
+                    new PositionChangedEvent(now, buyer, COMMODITY_ID, ledger.lots[buyer], 0),
+                    new PositionChangedEvent(now, seller, COMMODITY_ID, ledger.lots[seller], 0));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.commodityx.backend.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Segments are deleted as the checkpoint passes them, never before, and never the one being
+ * appended to; whatever is after the checkpoint still replays.
+ */
+class TradeJournalReleaseTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void deletesOnlySegmentsTheCheckpointHasPassed() throws Exception {
+        TradeJournal journal = TradeJournalCrashTest.Writer.open(dir);
+        TradeJournalCrashTest.Writer writer = new TradeJournalCrashTest.Writer(journal,
+                new TradeJournalCrashTest.Ledger(), new Random(3));
+        while (JournalSegments.list(dir).size() < 4) {
+            writer.trade();
+        }
+        List<Path> segments = JournalSegments.list(dir);
+        long secondStarts = JournalSegments.firstSequence(segments.get(1));
+        long thirdStarts = JournalSegments.firstSequence(segments.get(2));
+
+        // Inside the first segment: nothing can go
+        assertEquals(0, journal.release(secondStarts - 2));
+        assertEquals(segments, JournalSegments.list(dir));
+
+        // Exactly at the end of the first segment
+        assertEquals(1, journal.release(secondStarts - 1));
+        assertEquals(segments.subList(1, 4), JournalSegments.list(dir));
+
+        // Past the end of the second, inside the third
+        assertEquals(1, journal.release(thirdStarts + 1));
+        assertEquals(segments.subList(2, 4), JournalSegments.list(dir));
+
+        long[] firstReplayed = {0};
+        JournalSegments.replay(dir, thirdStarts + 1, event -> {
+            if (firstReplayed[0] == 0) {
+                firstReplayed[0] = event.getSequence();
+            }
+        });
+        assertEquals(thirdStarts + 2, firstReplayed[0]);
+
+        // A checkpoint at the head keeps the segment still being appended to
+        assertEquals(1, journal.release(journal.getLastSequence()));
+        assertEquals(segments.subList(3, 4), JournalSegments.list(dir));
+        assertEquals(0, journal.release(journal.getLastSequence()));
+
+        // A segment closed after the last release is picked up by the next one
+        while (JournalSegments.list(dir).size() < 2) {
+            writer.trade();
+        }
+        assertEquals(1, journal.release(journal.getLastSequence()));
+        journal.close();
+
+        TradeJournal reopened = TradeJournalCrashTest.Writer.open(dir);
+        assertTrue(reopened.getLastSequence() > 0);
+        reopened.close();
+    }
+}
@@ -0,0 +1,211 @@
+package com.commodityx.backend.service;
+
+import com.commodityx.backend.account.Account;
+import com.commodityx.backend.account.AccountBook;
+import com.commodityx.backend.account.AccountLocks;
+import com.commodityx.backend.account.OpenOrder;
+import com.commodityx.backend.account.OpenOrders;
+import com.commodityx.backend.account.Position;
+import com.commodityx.backend.engine.MatchResult;
+import com.commodityx.backend.engine.MatchingEngine;
+import com.commodityx.backend.engine.OrderBook;
+import com.commodityx.backend.journal.JournalEvent;
+import com.commodityx.backend.market.TickIngestion;
+import com.commodityx.backend.model.OrderType;
+import com.commodityx.backend.order.OrderTracker;
+import com.commodityx.backend.persistence.WriteBehindPipeline;
+import com.commodityx.backend.valuation.ValuationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Settles fills against real accounts, locks and books, with the database and the downstream
+ * fan-out mocked: cash and holdings move as the fill says, the tick and valuation updates go out
+ * after the account locks are released, and a fill that cannot be settled withdraws the orders
+ * it left behind on a settlement thread.
+ */
+class TradeSettlementServiceTest {
+
+    private static final long COMMODITY = 1;
+    private static final long START_MICROS = 1_000_000_000L;
+
+    private final AccountLocks accountLocks = new AccountLocks(16);
+    private final AccountBook accountBook = new AccountBook();
+    private final OpenOrders openOrders = new OpenOrders();
+    private final MatchingEngine matchingEngine = new MatchingEngine();
+    private final SettlementExecutor settlementExecutor = new SettlementExecutor();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final WriteBehindPipeline writeBehindPipeline = mock(WriteBehindPipeline.class);
+    private final TickIngestion tickIngestion = mock(TickIngestion.class);
+    private final ValuationEngine valuationEngine = mock(ValuationEngine.class);
+    private final OrderTracker orderTracker = mock(OrderTracker.class);
+    private final TradeSettlementService service = new TradeSettlementService();
+    private final OrderBook book = new OrderBook(COMMODITY);
+
+    @BeforeEach
+    void wire() {
+        when(jdbcTemplate.queryForList(anyString(), eq(BigDecimal.class), any(Object[].class)))
+                .thenReturn(List.of(new BigDecimal("1000.000000")));
+        ReflectionTestUtils.setField(accountBook, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(settlementExecutor, "threads", 1);
+        settlementExecutor.start();
+
+        ReflectionTestUtils.setField(service, "accountLocks", accountLocks);
+        ReflectionTestUtils.setField(service, "accountBook", accountBook);
+        ReflectionTestUtils.setField(service, "openOrders", openOrders);
+        ReflectionTestUtils.setField(service, "writeBehindPipeline", writeBehindPipeline);
+        ReflectionTestUtils.setField(service, "tickIngestion", tickIngestion);
+        ReflectionTestUtils.setField(service, "valuationEngine", valuationEngine);
+        ReflectionTestUtils.setField(service, "orderTracker", orderTracker);
+        ReflectionTestUtils.setField(service, "matchingEngine", matchingEngine);
+        ReflectionTestUtils.setField(service, "settlementExecutor", settlementExecutor);
+    }
+
+    @AfterEach
+    void shutdown() {
+        settlementExecutor.stop();
+        matchingEngine.shutdown();
+    }
+
+    @Test
+    void fillMovesCashAndHoldingsAndFansOutAfterTheLocks() {
+        OpenOrder sell = sell(2, 20, 10_000, 10_000);
+        OpenOrder buy = buy(1, 10, 10_100, 10_000);
+        book.match(sell.getOrderId(), 20, OrderType.SELL, 10_000, 10_000);
+        MatchResult result = book.match(buy.getOrderId(), 10, OrderType.BUY, 10_100, 10_000);
+
+        AtomicReference<Boolean> lockedDuringTick = new AtomicReference<>();
+        AtomicReference<Boolean> lockedDuringValuation = new AtomicReference<>();
+        doAnswer(invocation -> {
+            lockedDuringTick.set(holdsAnyStripe());
+            return null;
+        }).when(tickIngestion).onTrade(anyLong(), anyLong(), anyLong());
+        doAnswer(invocation -> {
+            lockedDuringValuation.set(holdsAnyStripe());
+            return null;
+        }).when(valuationEngine).onPosition(anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+
+        service.settle(result);
+
+        // The buyer reserved 101.00 and paid 100.00; the seller receives 100.00
+        assertEquals(START_MICROS - 100_000_000L, balance(10));
+        assertEquals(START_MICROS + 100_000_000L, balance(20));
+        Position position = position(10);
+        assertEquals(10_000, position.getQuantityLots());
+        assertEquals(10_000, position.getAveragePriceTicks());
+        assertTrue(buy.isFilled());
+        assertTrue(sell.isFilled());
+        assertNull(openOrders.get(1));
+        assertNull(openOrders.get(2));
+
+        verify(writeBehindPipeline).publish(any(JournalEvent[].class));
+        verify(tickIngestion).onTrade(COMMODITY, 10_000, 10_000);
+        verify(valuationEngine).onPosition(10, COMMODITY, 10_000, 10_000, position.getVersion());
+        assertFalse(lockedDuringTick.get(), "tick published under an account lock");
+        assertFalse(lockedDuringValuation.get(), "valuation published under an account lock");
+    }
+
+    @Test
+    void failedFillWithdrawsWhatItLeftBehindOnASettlementThread() throws Exception {
+        OpenOrder first = buy(1, 10, 10_000, 10_000);
+        OpenOrder second = buy(3, 30, 10_000, 10_000);
+        OpenOrder sell = sell(2, 20, 10_000, 20_000);
+        book.match(first.getOrderId(), 10, OrderType.BUY, 10_000, 10_000);
+        book.match(second.getOrderId(), 30, OrderType.BUY, 10_000, 10_000);
+        MatchResult result = book.match(sell.getOrderId(), 20, OrderType.SELL, 10_000, 20_000);
+        assertEquals(2, result.getFillCount());
+        // The second buyer's order has gone missing, so its fill cannot be settled
+        openOrders.remove(second.getOrderId());
+
+        AtomicReference<String> cancelledOn = new AtomicReference<>();
+        doAnswer(invocation -> {
+            OpenOrder order = invocation.getArgument(0);
+            if (order.getCancelledLots() > 0) {
+                cancelledOn.set(Thread.currentThread().getName());
+            }
+            return null;
+        }).when(orderTracker).update(any(OpenOrder.class));
+
+        assertThrows(RuntimeException.class, () -> service.settle(result));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cancelledOn.get() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(cancelledOn.get(), "the unsettled half of the sell order was never withdrawn");
+        assertTrue(cancelledOn.get().startsWith("settlement-"), "withdrawn on " + cancelledOn.get());
+
+        // The first fill stands; the seller gets back the lots of the second
+        assertTrue(first.isFilled());
+        accountLocks.withLock(20, () -> {
+            assertEquals(START_MICROS + 100_000_000L, balance(20));
+            assertEquals(10_000, position(20).getQuantityLots());
+            assertEquals(10_000, sell.getFilledLots());
+            assertEquals(10_000, sell.getCancelledLots());
+            return null;
+        });
+        assertNull(openOrders.get(sell.getOrderId()));
+    }
+
+    private OpenOrder buy(long orderId, long userId, long priceTicks, long quantityLots) {
+        return accountLocks.withLock(userId, () -> {
+            accountBook.get(userId).debit(priceTicks * quantityLots);
+            return open(new OpenOrder(orderId, userId, COMMODITY, OrderType.BUY, priceTicks, quantityLots, 0));
+        });
+    }
+
+    private OpenOrder sell(long orderId, long userId, long priceTicks, long quantityLots) {
+        return accountLocks.withLock(userId, () -> {
+            Position position = accountBook.get(userId).openPosition(COMMODITY);
+            position.buy(quantityLots, 9_000);
+            position.reserve(quantityLots);
+            return open(new OpenOrder(orderId, userId, COMMODITY, OrderType.SELL, priceTicks, quantityLots, 0));
+        });
+    }
+
+    private OpenOrder open(OpenOrder order) {
+        openOrders.add(order);
+        return order;
+    }
+
+    private long balance(long userId) {
+        return accountLocks.withLock(userId, () -> accountBook.get(userId).getBalanceMicros());
+    }
+
+    private Position position(long userId) {
+        return accountLocks.withLock(userId, () -> {
+            Account account = accountBook.get(userId);
+            return account.getPosition(COMMODITY);
+        });
+    }
+
+    private boolean holdsAnyStripe() {
+        ReentrantLock[] stripes = (ReentrantLock[]) ReflectionTestUtils.getField(accountLocks, "stripes");
+        return Arrays.stream(stripes).anyMatch(ReentrantLock::isHeldByCurrentThread);
+    }
+}
@@ -0,0 +1,144 @@
+package com.commodityx.backend.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A client that stops reading must not hold up anybody else's stream, even when it ties up the
+ * only sender thread.
+ */
+class UserStreamHubTest {
+
+    private static final long SLOW_CONSUMER_TIMEOUT_MS = 300;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private UserStreamHub hub;
+    private UserStreams streams;
+
+    @BeforeEach
+    void startHub() {
+        hub = new UserStreamHub();
+        ReflectionTestUtils.setField(hub, "intervalMs", 50L);
+        ReflectionTestUtils.setField(hub, "heartbeatMs", 60_000L);
+        ReflectionTestUtils.setField(hub, "senderThreads", 1);
+        ReflectionTestUtils.setField(hub, "slowConsumerTimeoutMs", SLOW_CONSUMER_TIMEOUT_MS);
+        ReflectionTestUtils.setField(hub, "maxAbandonedSenders", 1);
+        hub.start();
+        streams = hub.topic("order", 5, 16, false);
+    }
+
+    @AfterEach
+    void stopHub() {
+        unblock.countDown();
+        hub.stop();
+    }
+
+    @Test
+    void blockedStreamDoesNotHoldUpAnotherUser() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        streams.subscribe(1, new BlockingEmitter(blocked));
+        RecordingEmitter reader = new RecordingEmitter();
+        streams.subscribe(2, reader);
+
+        streams.publish(1, "first");
+        assertTrue(blocked.await(5, TimeUnit.SECONDS), "blocked client was never written to");
+        streams.publish(2, "update");
+
+        long started = System.nanoTime();
+        assertNotNull(reader.events.poll(5, TimeUnit.SECONDS), "delivery to user 2 was held up");
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertTrue(waitedMs < 5 * SLOW_CONSUMER_TIMEOUT_MS, "took " + waitedMs + " ms");
+
+        assertEquals(1, hub.getEvictedStreams());
+        assertFalse(streams.hasStreams(1), "blocked stream was not disconnected");
+        assertTrue(streams.hasStreams(2));
+
+        // The lent thread keeps serving user 2 while the abandoned send is still stuck
+        streams.publish(2, "next");
+        assertNotNull(reader.events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void extraSenderThreadsAreCappedButBlockedStreamsAreStillEvicted() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(2);
+        for (long userId = 1; userId <= 2; userId++) {
+            streams.subscribe(userId, new BlockingEmitter(blocked));
+        }
+
+        streams.publish(1, "first");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hub.getEvictedStreams() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // The thread lent in place of user 1's send picks up user 2, which blocks it too
+        streams.publish(2, "second");
+        assertTrue(blocked.await(5, TimeUnit.SECONDS), "second blocked client was never written to");
+        while (hub.getEvictedStreams() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, hub.getEvictedStreams());
+        assertFalse(streams.hasStreams(1));
+        assertFalse(streams.hasStreams(2));
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(
+                ReflectionTestUtils.getField(hub, "senders"), "pool");
+        assertEquals(2, pool.getMaximumPoolSize(), "one sender thread plus at most one extra");
+    }
+
+    @Test
+    void fullQueueDropsAndCounts() {
+        CountDownLatch blocked = new CountDownLatch(1);
+        streams.subscribe(1, new BlockingEmitter(blocked));
+        for (int i = 0; i < 40; i++) {
+            streams.publish(1, i);
+        }
+        // At most one event can have left the queue for the blocked send
+        assertTrue(streams.getDroppedEvents() >= 40 - 16 - 1, "dropped " + streams.getDroppedEvents());
+    }
+
+    private final class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch blocked;
+
+        private BlockingEmitter(CountDownLatch blocked) {
+            super(0L);
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            blocked.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> events = new LinkedBlockingQueue<>();
+
+        private RecordingEmitter() {
+            super(0L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+INSERT INTO commodities (symbol, name, current_price, price_change_24h, high_24h, low_24h, volume_24h, updated_at) VALUES
+('GC=F', 'Gold', 2050.00, 15.50, 2065.00, 2035.00, 1250000.50, CURRENT_TIMESTAMP),
+('SI=F', 'Silver', 24.50, -0.35, 24.90, 24.20, 850000.75, CURRENT_TIMESTAMP),
+('CL=F', 'Crude Oil', 78.25, 1.10, 79.00, 77.10, 2100000.00, CURRENT_TIMESTAMP);